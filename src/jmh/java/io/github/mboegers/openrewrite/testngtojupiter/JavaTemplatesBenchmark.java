@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import io.github.mboegers.openrewrite.testngtojupiter.helper.JavaTemplates;
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.tree.J;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares applying {@code @Disabled} to every method of one test class with a template and parser built per visited
+ * method, as the recipes did before, and with one template per visited class on the shared parser of
+ * {@linkplain JavaTemplates}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JavaTemplatesBenchmark {
+
+    private static final Comparator<J.Annotation> BY_NAME = Comparator.comparing(J.Annotation::getSimpleName);
+
+    @Param({"10", "100", "1000"})
+    int testMethods;
+
+    SourceFile testClass;
+
+    @Setup(Level.Trial)
+    public void parseTestClass() {
+        testClass = TestNgCorpus.builder()
+                .testClasses(1)
+                .providerClasses(0)
+                .testMethods(testMethods)
+                .build()
+                .parse(new InMemoryExecutionContext())
+                .get(0);
+    }
+
+    @Benchmark
+    public J buildPerVisitedMethod() {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                return JavaTemplate.builder("@Disabled")
+                        .javaParser(JavaParser.fromJavaVersion().classpath("junit-jupiter-api"))
+                        .imports("org.junit.jupiter.api.Disabled")
+                        .build()
+                        .apply(getCursor(), method.getCoordinates().addAnnotation(BY_NAME));
+            }
+        }.visit(testClass, new InMemoryExecutionContext());
+    }
+
+    @Benchmark
+    public J buildPerClassOnSharedParser() {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            final JavaTemplate disabled = JavaTemplate.builder("@Disabled")
+                    .javaParser(JavaTemplates.parser(List.of("junit-jupiter-api")))
+                    .imports("org.junit.jupiter.api.Disabled")
+                    .build();
+
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+                return disabled.apply(getCursor(), method.getCoordinates().addAnnotation(BY_NAME));
+            }
+        }.visit(testClass, new InMemoryExecutionContext());
+    }
+}
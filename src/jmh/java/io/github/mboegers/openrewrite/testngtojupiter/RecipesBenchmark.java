@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.*;
+import org.openrewrite.config.Environment;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every recipe over pre-parsed TestNG test classes, reported in files per second.
+ * <p>
+ * Run with {@code -prof gc} (the default of the benchmark profile) to also report the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(RecipesBenchmark.FILES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecipesBenchmark {
+
+    static final int FILES = 10;
+
+    public enum TestClassSize {
+        SMALL(5), MEDIUM(50), HUGE(1000);
+
+        final TestNgCorpus corpus;
+
+        TestClassSize(int testMethods) {
+            this.corpus = TestNgCorpus.builder()
+                    .testClasses(FILES)
+                    .providerClasses(0)
+                    .testMethods(testMethods)
+                    .disabledTests(testMethods / 3)
+                    .dataDrivenTests(testMethods / 3)
+                    .build();
+        }
+    }
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    TestClassSize size;
+
+    LargeSourceSet sources;
+    Recipe composite;
+    Recipe singlePassComposite;
+
+    @Setup(Level.Trial)
+    public void parseSources() {
+        sources = new InMemoryLargeSourceSet(size.corpus.parse(new InMemoryExecutionContext()));
+
+        Environment environment = Environment.builder()
+                .scanRuntimeClasspath("io.github.mboegers.openrewrite")
+                .build();
+        composite = environment.activateRecipes("io.github.mboegers.openrewrite.TestNgToJUnitJupiter");
+        singlePassComposite = environment.activateRecipes("io.github.mboegers.openrewrite.TestNgToJUnitJupiterSinglePass");
+    }
+
+    @Benchmark
+    public RecipeRun migrateTestAnnotation() {
+        return run(new MigrateTestAnnotation());
+    }
+
+    @Benchmark
+    public RecipeRun migrateEnabledArgument() {
+        return run(new MigrateEnabledArgument());
+    }
+
+    @Benchmark
+    public RecipeRun migrateDataProvider() {
+        return run(new MigrateDataProvider());
+    }
+
+    @Benchmark
+    public RecipeRun migrateAssertions() {
+        return run(new MigrateAssertionsRecipes());
+    }
+
+    @Benchmark
+    public RecipeRun addTestLifecycleToJUnitTests() {
+        return run(new AddTestLifecyleToJUnitTests());
+    }
+
+    @Benchmark
+    public RecipeRun migrateTestNgAnnotations() {
+        return run(new MigrateTestNgAnnotations());
+    }
+
+    @Benchmark
+    public RecipeRun testNgToJUnitJupiter() {
+        return run(composite);
+    }
+
+    @Benchmark
+    public RecipeRun testNgToJUnitJupiterSinglePass() {
+        return run(singlePassComposite);
+    }
+
+    private RecipeRun run(Recipe recipe) {
+        return recipe.run(sources, new InMemoryExecutionContext(Throwable::printStackTrace));
+    }
+}
@@ -10,24 +10,31 @@
 
 package io.github.mboegers.openrewrite.testngtojupiter;
 
+import io.github.mboegers.openrewrite.testngtojupiter.helper.Annotations;
+import io.github.mboegers.openrewrite.testngtojupiter.helper.FindAnnotation;
+import io.github.mboegers.openrewrite.testngtojupiter.table.FileStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.java.AnnotationMatcher;
 import org.openrewrite.java.JavaIsoVisitor;
-import org.openrewrite.java.JavaParser;
-import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
 
 import java.time.Duration;
 import java.util.Comparator;
+import java.util.List;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class AddTestLifecyleToJUnitTests extends Recipe {
 
+    transient MigrationStatistics statistics = new MigrationStatistics(this);
+
     @Override
     public String getDisplayName() {
         return "Add @TestInstance(TestInstance.Lifecycle.PER_CLASS) to Jupiter tests";
@@ -45,7 +52,9 @@ public class AddTestLifecyleToJUnitTests extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new AddTestLifecyleToJUnitTests.AddLifecyleAnnotationVisitor();
+        return Preconditions.check(
+                new UsesType<>("org.junit.jupiter.api.Test", false),
+                new AddTestLifecyleToJUnitTests.AddLifecyleAnnotationVisitor(getName(), statistics));
     }
 
     static class AddLifecyleAnnotationVisitor extends JavaIsoVisitor<ExecutionContext> {
@@ -53,11 +62,28 @@ public class AddTestLifecyleToJUnitTests extends Recipe {
         private static final AnnotationMatcher TEST_MATCHER = new AnnotationMatcher("@org.junit.jupiter.api.Test");
         private static final AnnotationMatcher TEST_INSTANCE_MATCHER = new AnnotationMatcher("@org.junit.jupiter.api.TestInstance");
 
+        private final String recipeName;
+        private final MigrationStatistics statistics;
+        private FileStatistics fileStatistics = new FileStatistics();
+
+        AddLifecyleAnnotationVisitor(String recipeName, MigrationStatistics statistics) {
+            this.recipeName = recipeName;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            fileStatistics = new FileStatistics();
+            J.CompilationUnit c = super.visitCompilationUnit(cu, ctx);
+            fileStatistics.insertRow(statistics, ctx, cu, recipeName);
+            return c;
+        }
+
         @Override
         public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
             classDecl = super.visitClassDeclaration(classDecl, ctx);
 
-            boolean hasTestInstanceAnnotation = classDecl.getLeadingAnnotations().stream().anyMatch(TEST_INSTANCE_MATCHER::matches);
+            boolean hasTestInstanceAnnotation = FindAnnotation.isDeclaredOn(classDecl, TEST_INSTANCE_MATCHER);
 
             Boolean usesJUnit = getCursor().pollMessage("USES_JUNIT");
             if (hasTestInstanceAnnotation || usesJUnit == null || !usesJUnit) {
@@ -65,14 +91,10 @@ public class AddTestLifecyleToJUnitTests extends Recipe {
             }
 
             // transform TestNG @Test to Jupiter
-            var addAnnotationCoordinate = classDecl.getCoordinates().addAnnotation(Comparator.comparing(J.Annotation::getSimpleName));
-            var cursor = getCursor();
-            classDecl = JavaTemplate
-                    .builder("@TestInstance(TestInstance.Lifecycle.PER_CLASS)")
-                    .javaParser(JavaParser.fromJavaVersion().classpath("junit-jupiter-api"))
-                    .imports("org.junit.jupiter.api.TestInstance")
-                    .build()
-                    .apply(cursor, addAnnotationCoordinate);
+            classDecl = Annotations.add(classDecl, Annotations.of("@TestInstance(TestInstance.Lifecycle.PER_CLASS)",
+                            List.of("junit-jupiter-api"), "org.junit.jupiter.api.TestInstance"),
+                    Comparator.comparing(J.Annotation::getSimpleName));
+            fileStatistics.annotationRewritten();
 
             // update imports
             maybeAddImport("org.junit.jupiter.api.TestInstance", false);
@@ -10,26 +10,107 @@
 
 package io.github.mboegers.openrewrite.testngtojupiter;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.github.mboegers.openrewrite.testngtojupiter.helper.AnnotationArguments;
+import io.github.mboegers.openrewrite.testngtojupiter.helper.Annotations;
 import io.github.mboegers.openrewrite.testngtojupiter.helper.FindAnnotatedMethods;
 import io.github.mboegers.openrewrite.testngtojupiter.helper.FindAnnotation;
+import io.github.mboegers.openrewrite.testngtojupiter.helper.JavaTemplates;
+import io.github.mboegers.openrewrite.testngtojupiter.table.FileStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
 import org.openrewrite.*;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.StringUtils;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.*;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
-import org.openrewrite.java.tree.JavaCoordinates;
 import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.Statement;
+import org.openrewrite.java.tree.TypeUtils;
 
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
 
-public class MigrateDataProvider extends Recipe {
+public class MigrateDataProvider extends ScanningRecipe<MigrateDataProvider.DataProviderIndex> {
 
     private static final String DATA_PROVIDER = "org.testng.annotations.DataProvider";
     private static final AnnotationMatcher DATA_PROVIDER_MATCHER = new AnnotationMatcher("@" + DATA_PROVIDER);
 
+    private static final String TESTNG_TEST = "org.testng.annotations.Test";
+    private static final AnnotationMatcher TESTNG_TEST_MATCHER = new AnnotationMatcher("@" + TESTNG_TEST);
+
+    private static final String PARAMETERIZED_TEST = "org.junit.jupiter.params.ParameterizedTest";
+    private static final AnnotationMatcher PARAMETERIZED_TEST_MATCHER = new AnnotationMatcher("@" + PARAMETERIZED_TEST);
+
+    private static final String METHOD_SOURCE = "org.junit.jupiter.params.provider.MethodSource";
+    private static final AnnotationMatcher METHOD_SOURCE_MATCHER = new AnnotationMatcher("@" + METHOD_SOURCE);
+
+    private static final String EXECUTION = "org.junit.jupiter.api.parallel.Execution";
+    private static final String EXECUTION_MODE = "org.junit.jupiter.api.parallel.ExecutionMode";
+    private static final AnnotationMatcher EXECUTION_MATCHER = new AnnotationMatcher("@" + EXECUTION);
+
+    private static final String SEEDED_INDEX = MigrateDataProvider.class.getName() + ".SEEDED_INDEX";
+
+    static final String SEQUENTIAL = "sequential";
+    static final String CONCURRENT = "concurrent";
+
+    @Option(displayName = "Shared state fallback",
+            description = "How tests of a parallel `@DataProvider` run if their class has mutable fields concurrent invocations share: " +
+                          "fields that are not final or hold a collection, map or array, static or not. " +
+                          "`sequential` does not mark them for concurrent execution, `concurrent` marks them anyway. Defaults to `sequential`.",
+            valid = {SEQUENTIAL, CONCURRENT},
+            example = SEQUENTIAL,
+            required = false)
+    @Nullable
+    private final String sharedStateFallback;
+
+    @Option(displayName = "Memoized providers",
+            description = "Providers whose rows are built once per JVM, as `declaring class#provider name` patterns in which `*` matches any characters. " +
+                          "A listed provider is memoized if it is static, has no parameters, returns `Object[][]` and more than one test consumes it. " +
+                          "All consumers share the same row objects, so list only providers whose rows are immutable. Defaults to none.",
+            example = "com.example.Fixtures#*",
+            required = false)
+    @Nullable
+    private final List<String> memoizedProviders;
+
+    private final transient MigrationStatistics statistics = new MigrationStatistics(this);
+    private final transient UnsupportedTestNgConstructs unsupportedConstructs = new UnsupportedTestNgConstructs(this);
+
+    public MigrateDataProvider() {
+        this(null, null);
+    }
+
+    @JsonCreator
+    public MigrateDataProvider(@JsonProperty("sharedStateFallback") @Nullable String sharedStateFallback,
+                               @JsonProperty("memoizedProviders") @Nullable List<String> memoizedProviders) {
+        this.sharedStateFallback = sharedStateFallback;
+        this.memoizedProviders = memoizedProviders;
+    }
+
+    public @Nullable String getSharedStateFallback() {
+        return sharedStateFallback;
+    }
+
+    public @Nullable List<String> getMemoizedProviders() {
+        return memoizedProviders;
+    }
+
+    /**
+     * Determine if any provider may be memoized, which needs the consumers of all providers in the index
+     *
+     * @return true if memoized providers are listed
+     */
+    public boolean memoizesProviders() {
+        return memoizedProviders != null && !memoizedProviders.isEmpty();
+    }
+
     @Override
     public String getDisplayName() {
         return "Migrate @DataProvider utilities";
@@ -40,153 +121,710 @@ public class MigrateDataProvider extends Recipe {
         return "Wrap `@DataProvider` methods into a Jupiter parameterized test with MethodSource.";
     }
 
+    /**
+     * Seed the index of all runs with the given context, for runners that parse and migrate the source set in
+     * batches and build the index in a pass of their own
+     *
+     * @param ctx   to run the recipe with
+     * @param index of all providers of the source set
+     */
+    public static void seedIndex(ExecutionContext ctx, DataProviderIndex index) {
+        ctx.putMessage(SEEDED_INDEX, index);
+    }
+
+    /**
+     * Add the providers declared in a source file and the tests consuming providers to an index
+     *
+     * @param sourceFile to search providers and consumers in
+     * @param index      to add the providers to
+     * @param ctx        of the run
+     */
+    public static void index(SourceFile sourceFile, DataProviderIndex index, ExecutionContext ctx) {
+        new IndexDataProviders(index).visit(sourceFile, ctx);
+    }
+
     @Override
-    public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new TreeVisitor<>() {
-            @Override
-            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx, Cursor parent) {
-                tree = super.visit(tree, ctx, parent);
-                // wrap methods
-                tree = new WrapDataProviderMethod().visit(tree, ctx, parent);
-                // remove @DataProvider
-                tree = new RemoveAnnotationVisitor(DATA_PROVIDER_MATCHER).visit(tree, ctx, parent);
-                // use @MethodeSource and @ParameterizedTest
-                tree = new UseParameterizedTest().visit(tree, ctx, parent);
-                tree = new UseMethodSource().visit(tree, ctx, parent);
-                // remove dataProviderName and dataProviderClass arguments
-                tree = new RemoveAnnotationAttribute("org.testng.annotations.Test", "dataProvider")
-                        .getVisitor().visit(tree, ctx);
-                tree = new RemoveAnnotationAttribute("org.testng.annotations.Test", "dataProviderClass")
-                        .getVisitor().visit(tree, ctx);
-                return tree;
-            }
-        };
-    }
-
-    private class WrapDataProviderMethod extends JavaIsoVisitor<ExecutionContext> {
-
-        private static final JavaTemplate methodeSourceTemplate = JavaTemplate.builder("""
-                        public static Stream<Arguments> #{}() {
-                            return Arrays.stream(#{}()).map(Arguments::of);
-                        }
-                        """)
-                .imports("org.junit.jupiter.params.provider.Arguments", "java.util.Arrays", "java.util.stream.Stream")
-                .contextSensitive()
-                .javaParser(JavaParser.fromJavaVersion().classpath("junit-jupiter-params"))
-                .build();
+    public DataProviderIndex getInitialValue(ExecutionContext ctx) {
+        return ctx.getMessage(SEEDED_INDEX, new DataProviderIndex());
+    }
 
-        @Override
-        public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, org.openrewrite.ExecutionContext ctx) {
-            classDecl = super.visitClassDeclaration(classDecl, ctx);
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(DataProviderIndex index) {
+        // consumers only matter for memoization, they do not import @DataProvider if the provider is in another class
+        return Preconditions.check(memoizesProviders()
+                ? Preconditions.or(new UsesType<>(DATA_PROVIDER, false), new UsesType<>(TESTNG_TEST, false))
+                : new UsesType<>(DATA_PROVIDER, false), new IndexDataProviders(index));
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(DataProviderIndex index) {
+        return Preconditions.check(Preconditions.or(
+                new UsesType<>(DATA_PROVIDER, false),
+                new UsesType<>(TESTNG_TEST, false)
+        ), new MigrateDataProviderVisitor(index, CONCURRENT.equals(sharedStateFallback),
+                memoizedProviders == null ? List.of() : memoizedProviders,
+                getName(), statistics, unsupportedConstructs));
+    }
+
+    /**
+     * All {@code @DataProvider} methods of the source set by declaring class and provider name.
+     * <p>
+     * Adding a provider twice has no effect, so an index can be seeded before the recipe scans the same sources.
+     * The index may be filled and read by several threads.
+     */
+    public static class DataProviderIndex {
+        private final Map<String, List<Provider>> providersByClass = new ConcurrentHashMap<>();
+        private final Map<String, Provider> providers = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> consumers = new ConcurrentHashMap<>();
+
+        /**
+         * Add a provider, for example one indexed by an earlier run
+         *
+         * @param provider to add
+         */
+        public void add(Provider provider) {
+            providersByClass.merge(provider.declaringClass(), List.of(provider), (known, added) -> known.contains(provider)
+                    ? known
+                    : Stream.concat(known.stream(), added.stream()).toList());
+            providers.putIfAbsent(provider.declaringClass() + "#" + provider.name(), provider);
+        }
+
+        /**
+         * Get all indexed providers
+         *
+         * @return the providers ordered by declaring class, declaration order within a class
+         */
+        public List<Provider> providers() {
+            return providersByClass.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .flatMap(e -> e.getValue().stream())
+                    .toList();
+        }
+
+        /**
+         * Get the providers declared directly in a class
+         *
+         * @param declaringClass fully qualified name of the class
+         * @return the providers declared directly in the class, in declaration order
+         */
+        public List<Provider> providersOf(String declaringClass) {
+            return providersByClass.getOrDefault(declaringClass, List.of());
+        }
+
+        /**
+         * Find a provider by the name tests reference it with
+         *
+         * @param declaringClass fully qualified name of the class
+         * @param name           the provider is referenced by
+         * @return the provider or Optional#empty if it is not part of the source set
+         */
+        public Optional<Provider> find(String declaringClass, String name) {
+            return Optional.ofNullable(providers.get(declaringClass + "#" + name));
+        }
+
+        /**
+         * Add a test consuming a provider, the provider does not have to be indexed yet
+         *
+         * @param reference to add
+         */
+        public void add(Reference reference) {
+            consumers.computeIfAbsent(reference.declaringClass() + "#" + reference.name(), key -> ConcurrentHashMap.newKeySet())
+                    .add(reference.consumer());
+        }
 
-            Set<J.MethodDeclaration> dataProviders = FindAnnotatedMethods.find(classDecl, DATA_PROVIDER_MATCHER);
+        /**
+         * Get all indexed references
+         *
+         * @return the references ordered by provider and consumer
+         */
+        public List<Reference> references() {
+            return consumers.entrySet().stream()
+                    .flatMap(e -> {
+                        int separator = e.getKey().lastIndexOf('#');
+                        return e.getValue().stream().map(consumer -> new Reference(e.getKey().substring(0, separator),
+                                e.getKey().substring(separator + 1), consumer));
+                    })
+                    .sorted(Comparator.comparing(Reference::declaringClass)
+                            .thenComparing(Reference::name)
+                            .thenComparing(Reference::consumer))
+                    .toList();
+        }
+
+        /**
+         * Count the tests consuming a provider
+         *
+         * @param provider to count the consumers of
+         * @return the number of distinct consuming tests
+         */
+        public int consumers(Provider provider) {
+            return consumers.getOrDefault(provider.declaringClass() + "#" + provider.name(), Set.of()).size();
+        }
+    }
+
+    /**
+     * A {@code @DataProvider} method, the name tests refer to it by, the name of its Jupiter wrapper and whether
+     * TestNG runs its invocations in parallel
+     */
+    public record Provider(String declaringClass, String methodName, String name, String wrapperName, boolean parallel) {
+    }
+
+    /**
+     * A test consuming the provider with the given name in the declaring class, the consumer is named
+     * {@code class#method}
+     */
+    public record Reference(String declaringClass, String name, String consumer) {
+    }
+
+    /**
+     * Indexes the providers declared in every class in a single walk
+     */
+    private static class IndexDataProviders extends JavaIsoVisitor<ExecutionContext> {
+        private final DataProviderIndex index;
+
+        IndexDataProviders(DataProviderIndex index) {
+            this.index = index;
+        }
 
-            // for each add a Wrapper that translates to Jupiter method source
-            for (J.MethodDeclaration provider : dataProviders) {
+        @Override
+        public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+            J.ClassDeclaration c = super.visitClassDeclaration(classDecl, ctx);
+            if (c.getType() == null) {
+                return c;
+            }
+
+            for (J.MethodDeclaration provider : FindAnnotatedMethods.collectMembers(c, DATA_PROVIDER_MATCHER)) {
                 String providerMethodName = provider.getSimpleName();
-                String providerName = FindAnnotation.find(provider, DATA_PROVIDER_MATCHER).stream().findAny()
+                Optional<J.Annotation> dataProvider = FindAnnotation.findFirstDeclared(provider, DATA_PROVIDER_MATCHER);
+                String providerName = dataProvider
                         .flatMap(j -> AnnotationArguments.extractLiteral(j, "name", String.class))
                         .orElse(providerMethodName);
+                boolean parallel = dataProvider
+                        .flatMap(j -> AnnotationArguments.extractLiteral(j, "parallel", Boolean.class))
+                        .orElse(false);
+                index.add(new Provider(c.getType().getFullyQualifiedName(), providerMethodName, providerName,
+                        providerName, parallel));
+            }
 
-                classDecl = classDecl.withBody(methodeSourceTemplate.apply(
-                        new Cursor(getCursor(), classDecl.getBody()), classDecl.getBody().getCoordinates().lastStatement(),
-                        providerName, providerMethodName));
+            return c;
+        }
+
+        @Override
+        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+            J.MethodDeclaration m = super.visitMethodDeclaration(method, ctx);
+
+            Optional<J.Annotation> testNgAnnotation = FindAnnotation.findFirstDeclared(m, TESTNG_TEST_MATCHER);
+            Optional<String> providerName = testNgAnnotation
+                    .flatMap(a -> AnnotationArguments.extractLiteral(a, "dataProvider", String.class));
+            J.ClassDeclaration testClass = getCursor().firstEnclosing(J.ClassDeclaration.class);
+            if (providerName.isEmpty() || testClass == null || testClass.getType() == null) {
+                return m;
             }
 
-            // add new imports
-            maybeAddImport("org.junit.jupiter.params.provider.Arguments");
-            maybeAddImport("java.util.Arrays");
-            maybeAddImport("java.util.stream.Stream");
+            // same resolution as FindDataProviderUsages, a provider class that is no class literal is not counted
+            List<Expression> providerClassArgument = AnnotationArguments.extractAssignments(testNgAnnotation.get(), "dataProviderClass");
+            Optional<String> providerClass = providerClassArgument.isEmpty()
+                    ? Optional.of(testClass.getType().getFullyQualifiedName())
+                    : providerClassArgument.stream()
+                            .findAny()
+                            .filter(J.FieldAccess.class::isInstance)
+                            .map(J.FieldAccess.class::cast)
+                            .map(J.FieldAccess::getTarget)
+                            .flatMap(target -> resolveClass(target, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class)));
+            providerClass.ifPresent(declaringClass -> index.add(new Reference(declaringClass, providerName.get(),
+                    testClass.getType().getFullyQualifiedName() + "#" + m.getSimpleName())));
+
+            return m;
+        }
+    }
+
+    /**
+     * Resolve a class reference by its type, or by its name if the class is not on the parser's classpath,
+     * e.g. because it was parsed in another batch
+     */
+    private static Optional<String> resolveClass(Expression classReference, J.CompilationUnit cu) {
+        if (classReference.unwrap().getType() instanceof JavaType.Class type) {
+            return Optional.of(type.getFullyQualifiedName());
+        }
 
-            return classDecl;
+        String name = qualifiedName(classReference.unwrap());
+        if (name == null || name.contains(".")) {
+            return Optional.ofNullable(name);
         }
+
+        return cu.getImports().stream()
+                .filter(i -> !i.isStatic() && i.getQualid().getSimpleName().equals(name))
+                .map(J.Import::getTypeName)
+                .findFirst()
+                .or(() -> Optional.of(cu.getPackageDeclaration() == null
+                        ? name
+                        : qualifiedName(cu.getPackageDeclaration().getExpression()) + "." + name));
     }
 
-    private class UseParameterizedTest extends JavaIsoVisitor<ExecutionContext> {
-        @Override
-        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
-            method = super.visitMethodDeclaration(method, ctx);
+    private static @Nullable String qualifiedName(Expression expression) {
+        if (expression instanceof J.Identifier identifier) {
+            return identifier.getSimpleName();
+        }
+        if (expression instanceof J.FieldAccess fieldAccess) {
+            String target = qualifiedName(fieldAccess.getTarget());
+            return target == null ? null : target + "." + fieldAccess.getSimpleName();
+        }
+        return null;
+    }
 
-            // if @ParameterizedTest is used, skip
-            Optional<J.Annotation> paraeterizedTestAnnotation = FindAnnotation.findFirst(method, new AnnotationMatcher("@org.junit.jupiter.params.ParameterizedTest"));
-            if (paraeterizedTestAnnotation.isPresent()) {
-                return method;
-            }
+    /**
+     * All edits needed within one compilation unit, keyed by the id of the tree to change
+     */
+    private static class DataProviderUsages {
+        final Set<UUID> classesWithProviders = new HashSet<>();
+        final Set<UUID> providerMethods = new HashSet<>();
+        final Map<UUID, Consumer> consumers = new HashMap<>();
+        final Set<UUID> testAnnotationsWithProviderArguments = new HashSet<>();
+        final List<Unsupported> unsupported = new ArrayList<>();
+
+        boolean isEmpty() {
+            return classesWithProviders.isEmpty() && providerMethods.isEmpty() && consumers.isEmpty()
+                   && testAnnotationsWithProviderArguments.isEmpty();
+        }
+    }
 
-            // if no TestNG @Test present, skip
-            Optional<J.Annotation> testNgAnnotation = FindAnnotation.findFirst(method, new AnnotationMatcher("@org.testng.annotations.Test"));
-            if (testNgAnnotation.isEmpty()) {
-                return method;
-            }
+    /**
+     * A TestNG test that consumes a data provider and the Jupiter annotations it still lacks
+     */
+    private record Consumer(String providerClass, String wrapperName,
+                            boolean addParameterizedTest, boolean addMethodSource, boolean addExecution) {
+    }
 
-            // determine if a parameterized test is applicable
-            Optional<String> dataProviderMethodName = AnnotationArguments.extractLiteral(testNgAnnotation.get(), "dataProvider", String.class);
-            if (dataProviderMethodName.isEmpty()) {
-                return method;
-            }
+    /**
+     * A provider reference that cannot be migrated as written
+     */
+    private record Unsupported(J.MethodDeclaration method, String construct, String reason) {
+    }
 
-            JavaCoordinates addAnnotationCoordinate = method.getCoordinates().addAnnotation((a, b) -> 1);
+    /**
+     * The rows a provider returns as a stream the wrapper maps to {@code Arguments}. Only {@code Object[][]} is
+     * materialized, iterators, iterables and streams are consumed lazily while the tests run.
+     */
+    private enum ProviderSource {
+        ARRAY("Arrays.stream(#{}())", "java.util.Arrays"),
+        ITERATOR("StreamSupport.stream(Spliterators.spliteratorUnknownSize(#{}(), Spliterator.ORDERED), false)",
+                "java.util.Spliterator", "java.util.Spliterators", "java.util.stream.StreamSupport"),
+        ITERABLE("StreamSupport.stream(#{}().spliterator(), false)", "java.util.stream.StreamSupport"),
+        STREAM("#{}()");
+
+        private final String stream;
+        private final List<String> imports;
+
+        ProviderSource(String stream, String... imports) {
+            this.stream = stream;
+            this.imports = List.of(imports);
+        }
 
-            method = JavaTemplate
-                    .builder("@ParameterizedTest")
-                    .javaParser(JavaParser.fromJavaVersion().classpath("junit-jupiter-params"))
-                    .imports("org.junit.jupiter.params.ParameterizedTest")
-                    .build()
-                    .apply(getCursor(), addAnnotationCoordinate);
+        String stream() {
+            return stream;
+        }
 
-            maybeAddImport("org.junit.jupiter.params.ParameterizedTest");
+        /**
+         * @return the types {@linkplain #stream()} refers to
+         */
+        List<String> imports() {
+            return imports;
+        }
 
-            return method;
+        /**
+         * Determine the source by the return type of the provider, providers of unknown type are taken for arrays
+         */
+        static ProviderSource of(@Nullable J.MethodDeclaration provider) {
+            JavaType returnType = provider == null || provider.getReturnTypeExpression() == null
+                    ? null
+                    : provider.getReturnTypeExpression().getType();
+            if (TypeUtils.isAssignableTo("java.util.stream.Stream", returnType)) {
+                return STREAM;
+            }
+            if (TypeUtils.isAssignableTo("java.util.Iterator", returnType)) {
+                return ITERATOR;
+            }
+            if (TypeUtils.isAssignableTo("java.lang.Iterable", returnType)) {
+                return ITERABLE;
+            }
+            return ARRAY;
         }
     }
 
-    class UseMethodSource extends JavaIsoVisitor<ExecutionContext> {
+    /**
+     * Collects providers and their consumers in a single walk without changing the tree
+     */
+    private static class FindDataProviderUsages extends JavaIsoVisitor<DataProviderUsages> {
+        private final DataProviderIndex index;
+        private final boolean concurrentWithSharedState;
+
+        FindDataProviderUsages(DataProviderIndex index, boolean concurrentWithSharedState) {
+            this.index = index;
+            this.concurrentWithSharedState = concurrentWithSharedState;
+        }
+
         @Override
-        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
-            method = super.visitMethodDeclaration(method, ctx);
+        public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, DataProviderUsages usages) {
+            J.ClassDeclaration c = super.visitClassDeclaration(classDecl, usages);
 
-            // if @MethodSource is used, skip
-            Optional<J.Annotation> methodSourceAnnotation = FindAnnotation.findFirst(method, new AnnotationMatcher("@org.junit.jupiter.params.provider.MethodSource"));
-            if (methodSourceAnnotation.isPresent()) {
-                return method;
+            // classes whose providers are migrated already keep their wrappers
+            if (c.getType() != null && !index.providersOf(c.getType().getFullyQualifiedName()).isEmpty()
+                && !FindAnnotatedMethods.collectMembers(c, DATA_PROVIDER_MATCHER).isEmpty()) {
+                usages.classesWithProviders.add(c.getId());
             }
 
-            // if no testng annotation is present, skip
-            Optional<J.Annotation> testNgAnnotation = FindAnnotation.findFirst(method, new AnnotationMatcher("@org.testng.annotations.Test"));
-            if (testNgAnnotation.isEmpty()) {
-                return method;
+            return c;
+        }
+
+        @Override
+        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, DataProviderUsages usages) {
+            J.MethodDeclaration m = super.visitMethodDeclaration(method, usages);
+
+            if (FindAnnotation.isDeclaredOn(m, DATA_PROVIDER_MATCHER)) {
+                usages.providerMethods.add(m.getId());
             }
 
             // determine Provider name, if not present skip!
-            Optional<String> dataProviderMethodName = AnnotationArguments.extractLiteral(testNgAnnotation.get(), "dataProvider", String.class);
+            Optional<J.Annotation> testNgAnnotation = FindAnnotation.findFirstDeclared(m, TESTNG_TEST_MATCHER);
+            Optional<String> dataProviderMethodName = testNgAnnotation
+                    .flatMap(a -> AnnotationArguments.extractLiteral(a, "dataProvider", String.class));
             if (dataProviderMethodName.isEmpty()) {
-                return method;
+                if (testNgAnnotation.isPresent()
+                    && !AnnotationArguments.extractAssignments(testNgAnnotation.get(), "dataProvider").isEmpty()) {
+                    usages.unsupported.add(new Unsupported(m, "@Test(dataProvider)",
+                            "Provider name is not a literal, the test is not migrated"));
+                }
+                return m;
             }
 
             // determin provider class or use current class as default
-            String dataProviderClass = AnnotationArguments.extractAssignments(testNgAnnotation.get(), "dataProviderClass").stream()
+            List<Expression> dataProviderClassArgument = AnnotationArguments.extractAssignments(testNgAnnotation.get(), "dataProviderClass");
+            Optional<String> declaredDataProviderClass = dataProviderClassArgument.stream()
                     .findAny()
+                    .filter(J.FieldAccess.class::isInstance)
                     .map(J.FieldAccess.class::cast)
                     .map(J.FieldAccess::getTarget)
-                    .map(e -> e.unwrap().getType())
-                    .filter(JavaType.Class.class::isInstance)
-                    .map(JavaType.Class.class::cast)
-                    .map(JavaType.Class::getFullyQualifiedName)
+                    .flatMap(target -> resolveClass(target, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class)));
+            if (!dataProviderClassArgument.isEmpty() && declaredDataProviderClass.isEmpty()) {
+                usages.unsupported.add(new Unsupported(m, "@Test(dataProviderClass)",
+                        "Provider class is not a class literal, the provider is looked up in the test class"));
+            }
+            String dataProviderClass = declaredDataProviderClass
                     .orElse(requireNonNull(getCursor().firstEnclosingOrThrow(J.ClassDeclaration.class).getType()).getFullyQualifiedName());
 
-            // add MethodSource annotation
-            JavaCoordinates addAnnotationCoordinate = method.getCoordinates().addAnnotation((a, b) -> 1);
-            method = JavaTemplate
-                    .builder("@MethodSource(\"#{}##{}\")")
-                    .javaParser(JavaParser.fromJavaVersion().classpath("junit-jupiter-params"))
-                    .imports("org.junit.jupiter.params.provider.MethodSource")
-                    .build()
-                    .apply(getCursor(), addAnnotationCoordinate, dataProviderClass, dataProviderMethodName.get());
+            // providers outside the source set are referenced by their name
+            Optional<Provider> provider = index.find(dataProviderClass, dataProviderMethodName.get());
+            String wrapperName = provider
+                    .map(Provider::wrapperName)
+                    .orElse(dataProviderMethodName.get());
+
+            boolean addParameterizedTest = !FindAnnotation.isDeclaredOn(m, PARAMETERIZED_TEST_MATCHER);
+            boolean addMethodSource = !FindAnnotation.isDeclaredOn(m, METHOD_SOURCE_MATCHER);
+            boolean addExecution = provider.filter(Provider::parallel).isPresent()
+                                   && !FindAnnotation.isDeclaredOn(m, EXECUTION_MATCHER)
+                                   && runConcurrently(m, usages);
+            usages.consumers.put(m.getId(),
+                    new Consumer(dataProviderClass, wrapperName, addParameterizedTest, addMethodSource, addExecution));
+
+            return m;
+        }
+
+        /**
+         * TestNG runs the invocations of a parallel provider on one test instance, and the migrated class keeps
+         * sharing it once {@linkplain AddTestLifecyleToJUnitTests} adds the {@code PER_CLASS} lifecycle. Static and
+         * instance fields are therefore both shared, whatever lifecycle is declared when this recipe runs. A shared
+         * field is mutable unless it is final and holds neither a collection, a map nor an array.
+         */
+        private boolean runConcurrently(J.MethodDeclaration method, DataProviderUsages usages) {
+            J.ClassDeclaration testClass = getCursor().firstEnclosingOrThrow(J.ClassDeclaration.class);
+            boolean sharesMutableFields = testClass.getBody().getStatements().stream()
+                    .filter(J.VariableDeclarations.class::isInstance)
+                    .map(J.VariableDeclarations.class::cast)
+                    .anyMatch(field -> !field.hasModifier(J.Modifier.Type.Final)
+                                       || field.getVariables().stream().anyMatch(v -> isMutableType(v.getType())));
+            if (!sharesMutableFields) {
+                return true;
+            }
+
+            usages.unsupported.add(new Unsupported(method, "@DataProvider(parallel)", concurrentWithSharedState
+                    ? "Test class has mutable shared fields, concurrent invocations share them"
+                    : "Test class has mutable shared fields, invocations run sequentially"));
+            return concurrentWithSharedState;
+        }
+
+        private static boolean isMutableType(@Nullable JavaType type) {
+            return type instanceof JavaType.Array
+                   || TypeUtils.isAssignableTo("java.util.Collection", type)
+                   || TypeUtils.isAssignableTo("java.util.Map", type);
+        }
+
+        @Override
+        public J.Annotation visitAnnotation(J.Annotation annotation, DataProviderUsages usages) {
+            J.Annotation a = super.visitAnnotation(annotation, usages);
+
+            if (TESTNG_TEST_MATCHER.matches(a)
+                && (!AnnotationArguments.extractAssignments(a, "dataProvider").isEmpty()
+                    || !AnnotationArguments.extractAssignments(a, "dataProviderClass").isEmpty())) {
+                usages.testAnnotationsWithProviderArguments.add(a.getId());
+            }
+
+            return a;
+        }
+    }
+
+    /**
+     * Applies the collected edits in a second pass, skipping compilation units without any
+     */
+    private static class MigrateDataProviderVisitor extends JavaIsoVisitor<ExecutionContext> {
+
+        // added annotations follow the existing ones
+        private static final Comparator<J.Annotation> APPEND = (a, b) -> 1;
+
+        private static final String METHOD_SOURCE_WRAPPER = """
+                public static Stream<Arguments> #{}() {
+                    return %s.map(Arguments::of);
+                }
+                """;
+
+        // rows are built on first use and kept in a field guarded by the class lock
+        private static final String MEMOIZED_METHOD_SOURCE_WRAPPER = """
+                private static Object[][] #{};
+
+                public static synchronized Stream<Arguments> #{}() {
+                    if (#{} == null) {
+                        #{} = #{}();
+                    }
+                    return Arrays.stream(#{}).map(Arguments::of);
+                }
+                """;
+
+        private final DataProviderIndex index;
+        private final boolean concurrentWithSharedState;
+        private final List<String> memoizedProviders;
+        private final String recipeName;
+        private final MigrationStatistics statistics;
+        private final UnsupportedTestNgConstructs unsupportedConstructs;
+        private DataProviderUsages usages = new DataProviderUsages();
+        private FileStatistics fileStatistics = new FileStatistics();
+        private Set<String> wrapperImports = new LinkedHashSet<>();
+
+        MigrateDataProviderVisitor(DataProviderIndex index, boolean concurrentWithSharedState,
+                                   List<String> memoizedProviders, String recipeName,
+                                   MigrationStatistics statistics, UnsupportedTestNgConstructs unsupportedConstructs) {
+            this.index = index;
+            this.concurrentWithSharedState = concurrentWithSharedState;
+            this.memoizedProviders = memoizedProviders;
+            this.recipeName = recipeName;
+            this.statistics = statistics;
+            this.unsupportedConstructs = unsupportedConstructs;
+        }
+
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            fileStatistics = new FileStatistics();
+            wrapperImports = new LinkedHashSet<>();
+            usages = new FindDataProviderUsages(index, concurrentWithSharedState).reduce(cu, new DataProviderUsages());
+            for (Unsupported unsupported : usages.unsupported) {
+                unsupportedConstructs.insertRow(ctx, cu, recipeName,
+                        unsupported.method(), unsupported.construct(), unsupported.reason());
+            }
+            if (usages.isEmpty()) {
+                fileStatistics.insertRow(statistics, ctx, cu, recipeName);
+                return cu;
+            }
+
+            J.CompilationUnit c = super.visitCompilationUnit(cu, ctx);
+
+            // update imports in the order the edits depend on each other
+            wrapperImports.forEach(this::maybeAddImport);
+            if (!usages.providerMethods.isEmpty()) {
+                maybeRemoveImport(DATA_PROVIDER);
+            }
+            if (usages.consumers.values().stream().anyMatch(Consumer::addParameterizedTest)) {
+                maybeAddImport(PARAMETERIZED_TEST);
+            }
+            if (usages.consumers.values().stream().anyMatch(Consumer::addMethodSource)) {
+                maybeAddImport(METHOD_SOURCE);
+            }
+            if (usages.consumers.values().stream().anyMatch(Consumer::addExecution)) {
+                maybeAddImport(EXECUTION);
+                maybeAddImport(EXECUTION_MODE);
+            }
+
+            fileStatistics.insertRow(statistics, ctx, cu, recipeName);
+            return c;
+        }
 
-            maybeAddImport("org.junit.jupiter.params.provider.MethodSource");
-            maybeRemoveImport(dataProviderClass);
+        @Override
+        public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+            J.ClassDeclaration c = super.visitClassDeclaration(classDecl, ctx);
+
+            if (!usages.classesWithProviders.contains(c.getId())) {
+                return c;
+            }
+
+            // add a Wrapper that translates to Jupiter method source for each provider, all in one application
+            // because every application parses a stub of the whole class
+            List<String> wrappers = new ArrayList<>();
+            List<Object> parameters = new ArrayList<>();
+            List<Provider> providers = index.providersOf(requireNonNull(c.getType()).getFullyQualifiedName());
+            Set<String> names = memberNames(c);
+            providers.forEach(provider -> names.add(provider.wrapperName()));
+            for (Provider provider : providers) {
+                J.MethodDeclaration declaration = declaration(c, provider);
+                ProviderSource source = ProviderSource.of(declaration);
+                wrapperImports.addAll(List.of("org.junit.jupiter.params.provider.Arguments", "java.util.stream.Stream"));
+                if (memoize(provider, declaration, source, ctx)) {
+                    String rows = uniqueName(provider.wrapperName() + "Rows", names);
+                    wrappers.add(MEMOIZED_METHOD_SOURCE_WRAPPER);
+                    parameters.addAll(List.of(rows, provider.wrapperName(), rows, rows, provider.methodName(), rows));
+                    wrapperImports.addAll(ProviderSource.ARRAY.imports());
+                } else {
+                    wrappers.add(METHOD_SOURCE_WRAPPER.formatted(source.stream()));
+                    parameters.addAll(List.of(provider.wrapperName(), provider.methodName()));
+                    wrapperImports.addAll(source.imports());
+                }
+            }
+            int firstWrapper = c.getBody().getStatements().size();
+            c = c.withBody(methodSourceWrappers(wrappers).apply(
+                    new Cursor(getCursor(), c.getBody()), c.getBody().getCoordinates().lastStatement(), parameters.toArray()));
+
+            // fields are formatted without blank lines around them, separate the memoized rows from the method before
+            c = c.withBody(c.getBody().withStatements(ListUtils.map(c.getBody().getStatements(), (i, statement) ->
+                    i >= firstWrapper && statement instanceof J.VariableDeclarations
+                    && !statement.getPrefix().getWhitespace().startsWith("\n\n")
+                            ? statement.withPrefix(statement.getPrefix().withWhitespace("\n" + statement.getPrefix().getWhitespace()))
+                            : statement)));
+
+            return c;
+        }
+
+        private static Set<String> memberNames(J.ClassDeclaration classDecl) {
+            Set<String> names = new HashSet<>();
+            for (Statement statement : classDecl.getBody().getStatements()) {
+                if (statement instanceof J.VariableDeclarations field) {
+                    field.getVariables().forEach(variable -> names.add(variable.getSimpleName()));
+                } else if (statement instanceof J.MethodDeclaration method) {
+                    names.add(method.getSimpleName());
+                }
+            }
+            return names;
+        }
+
+        /**
+         * Take the name or, if a member already uses it, the name with the first free number appended
+         */
+        private static String uniqueName(String name, Set<String> taken) {
+            String unique = name;
+            for (int i = 2; !taken.add(unique); i++) {
+                unique = name + i;
+            }
+            return unique;
+        }
+
+        private static @Nullable J.MethodDeclaration declaration(J.ClassDeclaration classDecl, Provider provider) {
+            return classDecl.getBody().getStatements().stream()
+                    .filter(J.MethodDeclaration.class::isInstance)
+                    .map(J.MethodDeclaration.class::cast)
+                    .filter(m -> m.getSimpleName().equals(provider.methodName()))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        /**
+         * Only a listed provider consumed by several tests is memoized, the list vouches for its rows being immutable.
+         * It has to be static, take no parameters like the test {@code Method} and materialize its rows anyway, lazy
+         * providers are left streaming.
+         */
+        private boolean memoize(Provider provider, @Nullable J.MethodDeclaration declaration, ProviderSource source,
+                                ExecutionContext ctx) {
+            String qualifiedName = provider.declaringClass() + "#" + provider.name();
+            if (declaration == null || index.consumers(provider) < 2
+                || memoizedProviders.stream().noneMatch(pattern -> StringUtils.matchesGlob(qualifiedName, pattern))) {
+                return false;
+            }
+
+            String reason;
+            if (!declaration.hasModifier(J.Modifier.Type.Static)) {
+                reason = "Provider is not static, it is called for every consuming test";
+            } else if (declaration.getParameters().stream().anyMatch(p -> !(p instanceof J.Empty))) {
+                reason = "Provider takes parameters, it is called for every consuming test";
+            } else if (source != ProviderSource.ARRAY) {
+                reason = "Provider streams its rows, it is called for every consuming test";
+            } else {
+                return true;
+            }
+            unsupportedConstructs.insertRow(ctx, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class),
+                    recipeName, declaration, "@DataProvider", reason);
+            return false;
+        }
+
+        /**
+         * The code depends on the kinds and number of providers of a class, so the template is not shared through
+         * {@linkplain JavaTemplates}, a registry entry per class layout would never be released. Building it only
+         * resolves the shared parser. Each parse of the class stub is counted as a template application.
+         */
+        private JavaTemplate methodSourceWrappers(List<String> wrappers) {
+            return JavaTemplate.builder(String.join("\n", wrappers))
+                    .contextSensitive()
+                    .javaParser(JavaTemplates.parser(List.of("junit-jupiter-params")))
+                    .imports("org.junit.jupiter.params.provider.Arguments", "java.util.Arrays", "java.util.Spliterator",
+                            "java.util.Spliterators", "java.util.stream.Stream", "java.util.stream.StreamSupport")
+                    .doBeforeParseTemplate(stub -> fileStatistics.templateApplied())
+                    .build();
+        }
+
+        @Override
+        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+            J.MethodDeclaration m = super.visitMethodDeclaration(method, ctx);
+
+            // remove @DataProvider
+            if (usages.providerMethods.contains(m.getId())) {
+                m = (J.MethodDeclaration) new RemoveAnnotationVisitor(DATA_PROVIDER_MATCHER)
+                        .visitNonNull(m, ctx, getCursor().getParentOrThrow());
+                fileStatistics.annotationRewritten();
+            }
+
+            // use @MethodeSource and @ParameterizedTest
+            Consumer consumer = usages.consumers.get(m.getId());
+            if (consumer == null) {
+                return m;
+            }
+
+            if (consumer.addParameterizedTest()) {
+                m = Annotations.add(m, Annotations.of("@ParameterizedTest", List.of("junit-jupiter-params"), PARAMETERIZED_TEST),
+                        APPEND);
+                fileStatistics.annotationRewritten();
+            }
+
+            if (consumer.addMethodSource()) {
+                J.Annotation methodSource = Annotations.of("@MethodSource(\"\")", List.of("junit-jupiter-params"), METHOD_SOURCE);
+                m = Annotations.add(m, Annotations.withStringValue(methodSource,
+                        consumer.providerClass() + "#" + consumer.wrapperName()), APPEND);
+                fileStatistics.annotationRewritten();
+            }
+
+            // invocations of a parallel provider run concurrently
+            if (consumer.addExecution()) {
+                m = Annotations.add(m, Annotations.of("@Execution(ExecutionMode.CONCURRENT)", List.of("junit-jupiter-api"),
+                        EXECUTION, EXECUTION_MODE), APPEND);
+                fileStatistics.annotationRewritten();
+            }
+
+            return m;
+        }
+
+        @Override
+        public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
+            J.Annotation a = super.visitAnnotation(annotation, ctx);
+
+            // remove dataProviderName and dataProviderClass arguments
+            if (usages.testAnnotationsWithProviderArguments.contains(a.getId())) {
+                a = AnnotationArguments.removeAssignment(a, "dataProvider");
+                a = AnnotationArguments.removeAssignment(a, "dataProviderClass");
+                fileStatistics.annotationRewritten();
+            }
 
-            return method;
+            return a;
         }
     }
 }
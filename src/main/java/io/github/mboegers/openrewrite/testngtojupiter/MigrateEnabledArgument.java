@@ -11,22 +11,34 @@
 package io.github.mboegers.openrewrite.testngtojupiter;
 
 import io.github.mboegers.openrewrite.testngtojupiter.helper.AnnotationArguments;
+import io.github.mboegers.openrewrite.testngtojupiter.helper.Annotations;
 import io.github.mboegers.openrewrite.testngtojupiter.helper.FindAnnotation;
+import io.github.mboegers.openrewrite.testngtojupiter.table.FileStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.*;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
 
 import java.time.Duration;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class MigrateEnabledArgument extends Recipe {
+
+    transient MigrationStatistics statistics = new MigrationStatistics(this);
+    transient UnsupportedTestNgConstructs unsupportedConstructs = new UnsupportedTestNgConstructs(this);
+
     @Override
     public String getDisplayName() {
         return "Replace TestNG enable Test";
@@ -44,35 +56,65 @@ public class MigrateEnabledArgument extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new MigrateEnabledArgumentVisitor();
+        return Preconditions.check(
+                new UsesType<>("org.testng.annotations.Test", false),
+                new MigrateEnabledArgumentVisitor(getName(), statistics, unsupportedConstructs));
     }
 
     static class MigrateEnabledArgumentVisitor extends JavaIsoVisitor<ExecutionContext> {
         private final AnnotationMatcher TESTNG_TEST_MATCHER = new AnnotationMatcher("@org.testng.annotations.Test");
 
+        private final String recipeName;
+        private final MigrationStatistics statistics;
+        private final UnsupportedTestNgConstructs unsupportedConstructs;
+        private FileStatistics fileStatistics = new FileStatistics();
+
+        MigrateEnabledArgumentVisitor(String recipeName, MigrationStatistics statistics,
+                                      UnsupportedTestNgConstructs unsupportedConstructs) {
+            this.recipeName = recipeName;
+            this.statistics = statistics;
+            this.unsupportedConstructs = unsupportedConstructs;
+        }
+
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            fileStatistics = new FileStatistics();
+            J.CompilationUnit c = super.visitCompilationUnit(cu, ctx);
+            fileStatistics.insertRow(statistics, ctx, cu, recipeName);
+            return c;
+        }
+
         @Override
         public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
             method = super.visitMethodDeclaration(method, ctx);
 
             // add @Disables if enabled=false
-            Optional<Boolean> isEnabled = FindAnnotation.find(method, TESTNG_TEST_MATCHER).stream().findAny()
+            Optional<J.Annotation> testNgAnnotation = FindAnnotation.findFirstDeclared(method, TESTNG_TEST_MATCHER);
+            Optional<Boolean> isEnabled = testNgAnnotation
                     .flatMap(j -> AnnotationArguments.extractLiteral(j, "enabled", Boolean.class));
 
             if (isEnabled.isPresent() && !isEnabled.get()) {
-                var addAnnotationCoordinate = method.getCoordinates().addAnnotation(Comparator.comparing(J.Annotation::getSimpleName));
-                method = JavaTemplate
-                        .builder("@Disabled")
-                        .javaParser(JavaParser.fromJavaVersion().classpath("junit-jupiter-api"))
-                        .imports("org.junit.jupiter.api.Disabled")
-                        .build()
-                        .apply(getCursor(), addAnnotationCoordinate);
+                method = Annotations.add(method,
+                        Annotations.of("@Disabled", List.of("junit-jupiter-api"), "org.junit.jupiter.api.Disabled"),
+                        Comparator.comparing(J.Annotation::getSimpleName));
                 maybeAddImport("org.junit.jupiter.api.Disabled", false);
+                fileStatistics.annotationRewritten();
             }
 
-            // remove argument assigment
-            doAfterVisit(new RemoveAnnotationAttribute("org.testng.annotations.Test", "enabled").getVisitor());
+            if (testNgAnnotation.isEmpty() || AnnotationArguments.extractAssignments(testNgAnnotation.get(), "enabled").isEmpty()) {
+                return method;
+            }
+
+            fileStatistics.annotationRewritten();
+            if (isEnabled.isEmpty()) {
+                unsupportedConstructs.insertRow(ctx, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class),
+                        recipeName, method, "@Test(enabled)",
+                        "Value is not a literal, the argument is removed without adding @Disabled");
+            }
 
-            return method;
+            // remove argument assigment in this visit, so MigrateTestAnnotation can migrate @Test in the same cycle
+            return method.withLeadingAnnotations(ListUtils.map(method.getLeadingAnnotations(),
+                    a -> TESTNG_TEST_MATCHER.matches(a) ? AnnotationArguments.removeAssignment(a, "enabled") : a));
         }
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import io.github.mboegers.openrewrite.testngtojupiter.helper.AnnotationArguments;
+import io.github.mboegers.openrewrite.testngtojupiter.helper.Annotations;
+import io.github.mboegers.openrewrite.testngtojupiter.helper.FindAnnotation;
+import io.github.mboegers.openrewrite.testngtojupiter.table.FileStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.AnnotationMatcher;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.RemoveAnnotationVisitor;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.Space;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Migrates {@code @Test(invocationCount = n, threadPoolSize = m)} to {@code @RepeatedTest(n)}, repetitions that ran
+ * on a thread pool are marked with {@code @Execution(ExecutionMode.CONCURRENT)}.
+ */
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class MigrateInvocationCount extends Recipe {
+
+    transient MigrationStatistics statistics = new MigrationStatistics(this);
+    transient UnsupportedTestNgConstructs unsupportedConstructs = new UnsupportedTestNgConstructs(this);
+
+    @Override
+    public String getDisplayName() {
+        return "Replace TestNG invocationCount and threadPoolSize";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Replace @org.testng.annotations.Test's invocationCount with Jupiter @RepeatedTest and threadPoolSize with @Execution(ExecutionMode.CONCURRENT).";
+    }
+
+    @Override
+    public Duration getEstimatedEffortPerOccurrence() {
+        return Duration.ofMinutes(5);
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(
+                new UsesType<>("org.testng.annotations.Test", false),
+                new MigrateInvocationCountVisitor(getName(), statistics, unsupportedConstructs));
+    }
+
+    static class MigrateInvocationCountVisitor extends JavaIsoVisitor<ExecutionContext> {
+        private static final String TESTNG_TEST = "org.testng.annotations.Test";
+        private final AnnotationMatcher TESTNG_TEST_MATCHER = new AnnotationMatcher("@" + TESTNG_TEST);
+
+        private static final String JUPITER_TEST = "org.junit.jupiter.api.Test";
+        private static final String REPEATED_TEST = "org.junit.jupiter.api.RepeatedTest";
+        private static final String EXECUTION = "org.junit.jupiter.api.parallel.Execution";
+        private static final String EXECUTION_MODE = "org.junit.jupiter.api.parallel.ExecutionMode";
+
+        /**
+         * Arguments this recipe migrates, TestNG @Test with any other argument is kept
+         */
+        private static final Set<String> ARGUMENTS = Set.of("invocationCount", "threadPoolSize");
+
+        private final String recipeName;
+        private final MigrationStatistics statistics;
+        private final UnsupportedTestNgConstructs unsupportedConstructs;
+        private FileStatistics fileStatistics = new FileStatistics();
+
+        MigrateInvocationCountVisitor(String recipeName, MigrationStatistics statistics,
+                                      UnsupportedTestNgConstructs unsupportedConstructs) {
+            this.recipeName = recipeName;
+            this.statistics = statistics;
+            this.unsupportedConstructs = unsupportedConstructs;
+        }
+
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            fileStatistics = new FileStatistics();
+            J.CompilationUnit c = super.visitCompilationUnit(cu, ctx);
+            fileStatistics.insertRow(statistics, ctx, cu, recipeName);
+            return c;
+        }
+
+        @Override
+        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+            method = super.visitMethodDeclaration(method, ctx);
+
+            // return early if no TestNG @Test with invocationCount or threadPoolSize only
+            Optional<J.Annotation> testNgAnnotation = FindAnnotation.findFirstDeclared(method, TESTNG_TEST_MATCHER);
+            if (testNgAnnotation.isEmpty()) {
+                return method;
+            }
+            List<String> arguments = AnnotationArguments.names(testNgAnnotation.get());
+            if (arguments.stream().noneMatch(ARGUMENTS::contains) || !ARGUMENTS.containsAll(arguments)) {
+                return method;
+            }
+
+            Optional<Expression> invocationCount = AnnotationArguments.extractAssignments(testNgAnnotation.get(), "invocationCount")
+                    .stream().findFirst();
+            Optional<Integer> literalCount = AnnotationArguments.extractLiteral(testNgAnnotation.get(), "invocationCount", Integer.class);
+            if (literalCount.filter(count -> count < 1).isPresent()) {
+                unsupportedConstructs.insertRow(ctx, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class),
+                        recipeName, method, "@Test(invocationCount)",
+                        "@RepeatedTest needs at least one repetition, TestNG @Test is kept");
+                return method;
+            }
+
+            // TestNG ignores threadPoolSize without invocationCount, a single invocation stays a plain test
+            if (invocationCount.isEmpty() || literalCount.filter(count -> count == 1).isPresent()) {
+                method = Annotations.add(method, Annotations.of("@Test", List.of("junit-jupiter-api"), JUPITER_TEST),
+                        Comparator.comparing(J.Annotation::getSimpleName));
+                maybeAddImport(JUPITER_TEST, false);
+            } else {
+                J.Annotation repeatedTest = Annotations.of("@RepeatedTest(1)", List.of("junit-jupiter-api"), REPEATED_TEST);
+                method = Annotations.add(method,
+                        repeatedTest.withArguments(List.of(invocationCount.get().withPrefix(Space.EMPTY))),
+                        Comparator.comparing(J.Annotation::getSimpleName));
+                maybeAddImport(REPEATED_TEST, false);
+
+                if (runsOnThreadPool(testNgAnnotation.get())) {
+                    method = Annotations.add(method,
+                            Annotations.of("@Execution(ExecutionMode.CONCURRENT)", List.of("junit-jupiter-api"), EXECUTION, EXECUTION_MODE),
+                            Comparator.comparing(J.Annotation::getSimpleName));
+                    maybeAddImport(EXECUTION, false);
+                    maybeAddImport(EXECUTION_MODE, false);
+                    fileStatistics.annotationRewritten();
+                    unsupportedConstructs.insertRow(ctx, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class),
+                            recipeName, method, "@Test(threadPoolSize)",
+                            "Repetitions run concurrently on the shared Jupiter pool, the pool size is not kept and junit.jupiter.execution.parallel.enabled has to be set");
+                }
+            }
+            fileStatistics.annotationRewritten();
+
+            //remove old annotation of this method only, others may still have arguments
+            maybeRemoveImport(TESTNG_TEST);
+            return (J.MethodDeclaration) new RemoveAnnotationVisitor(TESTNG_TEST_MATCHER)
+                    .visitNonNull(method, ctx, getCursor().getParentOrThrow());
+        }
+
+        private static boolean runsOnThreadPool(J.Annotation testNgAnnotation) {
+            if (AnnotationArguments.extractAssignments(testNgAnnotation, "threadPoolSize").isEmpty()) {
+                return false;
+            }
+            return AnnotationArguments.extractLiteral(testNgAnnotation, "threadPoolSize", Integer.class)
+                    .map(size -> size > 1)
+                    .orElse(true);
+        }
+    }
+}
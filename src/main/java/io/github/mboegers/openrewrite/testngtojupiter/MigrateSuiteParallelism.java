@@ -0,0 +1,296 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
+import org.openrewrite.*;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.properties.PropertiesParser;
+import org.openrewrite.properties.PropertiesVisitor;
+import org.openrewrite.properties.tree.Properties;
+import org.openrewrite.xml.tree.Xml;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Translates the {@code parallel} and {@code thread-count} attributes of TestNG suite files into the parallel
+ * execution settings of a {@code junit-platform.properties}.
+ * <p>
+ * Jupiter has one configuration per test run, so the settings of all suites and {@code <test>}s sharing a properties
+ * file are merged into the most parallel one. The properties file is placed in {@code src/test/resources} of the
+ * module, an existing one only gets the keys it does not set yet. The module of a suite is resolved once all sources
+ * are scanned, see {@linkplain #propertiesPath(Path, Set)}.
+ */
+public class MigrateSuiteParallelism extends ScanningRecipe<MigrateSuiteParallelism.SuiteSettings> {
+
+    static final String JUNIT_PLATFORM_PROPERTIES = "junit-platform.properties";
+    private static final String TEST_RESOURCES = "src/test/resources";
+    private static final Set<String> BUILD_FILES = Set.of("pom.xml", "build.gradle", "build.gradle.kts");
+
+    /**
+     * Thread count TestNG uses if {@code parallel} is given without {@code thread-count}
+     */
+    private static final int TESTNG_DEFAULT_THREAD_COUNT = 5;
+
+    private final transient UnsupportedTestNgConstructs unsupportedConstructs = new UnsupportedTestNgConstructs(this);
+
+    @Override
+    public String getDisplayName() {
+        return "Migrate testng.xml parallel settings";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Write the `parallel` and `thread-count` settings of TestNG suite files as `junit.jupiter.execution.parallel.*` properties to `junit-platform.properties`.";
+    }
+
+    @Override
+    public SuiteSettings getInitialValue(ExecutionContext ctx) {
+        return new SuiteSettings();
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(SuiteSettings settings) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+                if (tree instanceof Xml.Document document && "suite".equals(document.getRoot().getName())) {
+                    scanSuite(document, settings, ctx);
+                } else if (tree instanceof Properties.File file
+                           && file.getSourcePath().endsWith(JUNIT_PLATFORM_PROPERTIES)) {
+                    settings.existing.add(file.getSourcePath());
+                }
+                if (tree instanceof SourceFile sourceFile
+                    && BUILD_FILES.contains(sourceFile.getSourcePath().getFileName().toString())) {
+                    Path module = sourceFile.getSourcePath().getParent();
+                    settings.modules.add(module == null ? Paths.get("") : module);
+                }
+                return tree;
+            }
+        };
+    }
+
+    @Override
+    public Collection<? extends SourceFile> generate(SuiteSettings settings, ExecutionContext ctx) {
+        List<SourceFile> generated = new ArrayList<>();
+        settings.byPropertiesFile().forEach((path, parallelism) -> {
+            if (!settings.existing.contains(path)) {
+                generated.add(parse(properties(parallelism, Set.of())).withSourcePath(path));
+            }
+        });
+        return generated;
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(SuiteSettings settings) {
+        return new PropertiesVisitor<ExecutionContext>() {
+            @Override
+            public Properties visitFile(Properties.File file, ExecutionContext ctx) {
+                Parallelism parallelism = settings.byPropertiesFile().get(file.getSourcePath());
+                if (parallelism == null) {
+                    return file;
+                }
+
+                Set<String> keys = new HashSet<>();
+                for (Properties.Content content : file.getContent()) {
+                    if (content instanceof Properties.Entry entry) {
+                        keys.add(entry.getKey());
+                    }
+                }
+                String missing = properties(parallelism, keys);
+                if (missing.isEmpty()) {
+                    return file;
+                }
+
+                // keys set by the project win, the missing ones are appended keeping the newline at the end or not
+                String source = file.printAll();
+                if (!source.isEmpty() && !source.endsWith("\n")) {
+                    source += "\n";
+                    missing = missing.substring(0, missing.length() - 1);
+                }
+                return parse(source + missing)
+                        .withId(file.getId())
+                        .withSourcePath(file.getSourcePath())
+                        .withMarkers(file.getMarkers());
+            }
+        };
+    }
+
+    private void scanSuite(Xml.Document document, SuiteSettings settings, ExecutionContext ctx) {
+        Path suitePath = document.getSourcePath();
+        Xml.Tag suite = document.getRoot();
+        String suiteName = attribute(suite, "name").orElse(suitePath.toString());
+
+        // <test> elements inherit parallel and thread-count of the suite
+        Mode suiteMode = mode(suite, suiteName, suitePath, Mode.NONE, ctx);
+        int suiteThreads = threadCount(suite, TESTNG_DEFAULT_THREAD_COUNT);
+        Set<Parallelism> used = new LinkedHashSet<>();
+        if (suiteMode != Mode.NONE) {
+            used.add(new Parallelism(suiteMode, suiteThreads));
+        }
+        for (Xml.Tag test : suite.getChildren("test")) {
+            String testName = suiteName + "/" + attribute(test, "name").orElse("test");
+            Mode testMode = mode(test, testName, suitePath, suiteMode, ctx);
+            if (testMode != Mode.NONE) {
+                used.add(new Parallelism(testMode, threadCount(test, suiteThreads)));
+            }
+        }
+        if (used.isEmpty()) {
+            return;
+        }
+
+        if (used.size() > 1) {
+            unsupportedConstructs.insertRow(ctx, new UnsupportedTestNgConstructs.Row(suitePath.toString(), getName(),
+                    suiteName, "parallel", "Jupiter has one parallel configuration per test run, the most parallel setting of the suite is used"));
+        }
+        Parallelism merged = used.stream().reduce(Parallelism::merge).orElseThrow();
+        settings.suites.merge(suitePath, merged, Parallelism::merge);
+    }
+
+    private Mode mode(Xml.Tag tag, String element, Path suitePath, Mode inherited, ExecutionContext ctx) {
+        Optional<String> parallel = attribute(tag, "parallel");
+        if (parallel.isEmpty()) {
+            return inherited;
+        }
+
+        switch (parallel.get()) {
+            case "methods", "true":
+                return Mode.METHODS;
+            case "classes":
+                return Mode.CLASSES;
+            case "tests", "instances":
+                unsupportedConstructs.insertRow(ctx, new UnsupportedTestNgConstructs.Row(suitePath.toString(), getName(),
+                        element, "parallel=\"" + parallel.get() + "\"", "Jupiter has no parallel mode for " + parallel.get() + ", classes run concurrently instead"));
+                return Mode.CLASSES;
+            case "none", "false":
+                return Mode.NONE;
+            default:
+                unsupportedConstructs.insertRow(ctx, new UnsupportedTestNgConstructs.Row(suitePath.toString(), getName(),
+                        element, "parallel=\"" + parallel.get() + "\"", "Unknown parallel mode, the element runs sequentially"));
+                return Mode.NONE;
+        }
+    }
+
+    private static int threadCount(Xml.Tag tag, int inherited) {
+        try {
+            return attribute(tag, "thread-count").map(Integer::parseInt).filter(count -> count > 0).orElse(inherited);
+        } catch (NumberFormatException e) {
+            return inherited;
+        }
+    }
+
+    private static Optional<String> attribute(Xml.Tag tag, String name) {
+        return tag.getAttributes().stream()
+                .filter(attribute -> name.equals(attribute.getKeyAsString()))
+                .map(Xml.Attribute::getValueAsString)
+                .map(String::trim)
+                .findFirst();
+    }
+
+    /**
+     * The properties file of the module the suite belongs to. A suite in the test resources uses the properties of
+     * that resources root, otherwise the module is the nearest directory with a build file, the directory above a
+     * {@code src} segment of the suite path or, failing both, the directory of the suite.
+     *
+     * @param suitePath of the suite file
+     * @param modules   directories containing a Maven or Gradle build file
+     * @return path of the properties file
+     */
+    static Path propertiesPath(Path suitePath, Set<Path> modules) {
+        String suite = suitePath.toString().replace('\\', '/');
+        int resources = suite.indexOf(TEST_RESOURCES + "/");
+        if (resources == 0 || resources > 0 && suite.charAt(resources - 1) == '/') {
+            return Paths.get(suite.substring(0, resources + TEST_RESOURCES.length()), JUNIT_PLATFORM_PROPERTIES);
+        }
+
+        Path directory = suitePath.getParent() == null ? Paths.get("") : suitePath.getParent();
+        for (Path module = directory; module != null; module = module.getParent()) {
+            if (modules.contains(module)) {
+                return testResources(module);
+            }
+        }
+        if (modules.contains(Paths.get(""))) {
+            return testResources(Paths.get(""));
+        }
+        for (int i = directory.getNameCount() - 1; i >= 0; i--) {
+            if ("src".equals(directory.getName(i).toString())) {
+                return testResources(i == 0 ? Paths.get("") : directory.subpath(0, i));
+            }
+        }
+        return testResources(directory);
+    }
+
+    private static Path testResources(Path module) {
+        return module.resolve(TEST_RESOURCES).resolve(JUNIT_PLATFORM_PROPERTIES);
+    }
+
+    private static String properties(Parallelism parallelism, Set<String> existingKeys) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("junit.jupiter.execution.parallel.enabled", "true");
+        properties.put("junit.jupiter.execution.parallel.mode.default",
+                parallelism.mode() == Mode.METHODS ? "concurrent" : "same_thread");
+        properties.put("junit.jupiter.execution.parallel.mode.classes.default", "concurrent");
+        properties.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+        properties.put("junit.jupiter.execution.parallel.config.fixed.parallelism", Integer.toString(parallelism.threads()));
+
+        StringBuilder source = new StringBuilder();
+        properties.forEach((key, value) -> {
+            if (!existingKeys.contains(key)) {
+                source.append(key).append('=').append(value).append('\n');
+            }
+        });
+        return source.toString();
+    }
+
+    private static Properties.File parse(String source) {
+        return (Properties.File) PropertiesParser.builder().build()
+                .parse(source)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("cannot parse " + source));
+    }
+
+    /**
+     * Parallel settings of all TestNG suites, the existing properties files and the directories of the modules
+     */
+    public static class SuiteSettings {
+        private final Map<Path, Parallelism> suites = new TreeMap<>();
+        private final Set<Path> existing = new HashSet<>();
+        private final Set<Path> modules = new HashSet<>();
+        private @Nullable Map<Path, Parallelism> byPropertiesFile;
+
+        /**
+         * Merge the settings of the suites by the properties file they are written to, once all sources are scanned
+         */
+        private Map<Path, Parallelism> byPropertiesFile() {
+            if (byPropertiesFile == null) {
+                byPropertiesFile = new TreeMap<>();
+                suites.forEach((suite, parallelism) ->
+                        byPropertiesFile.merge(propertiesPath(suite, modules), parallelism, Parallelism::merge));
+            }
+            return byPropertiesFile;
+        }
+    }
+
+    /**
+     * TestNG parallel modes by the Jupiter execution mode they map to, ordered from sequential to most parallel
+     */
+    enum Mode {
+        NONE, CLASSES, METHODS
+    }
+
+    record Parallelism(Mode mode, int threads) {
+        Parallelism merge(Parallelism other) {
+            return new Parallelism(mode.compareTo(other.mode) >= 0 ? mode : other.mode, Math.max(threads, other.threads));
+        }
+    }
+}
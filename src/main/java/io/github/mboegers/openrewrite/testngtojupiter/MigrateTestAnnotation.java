@@ -11,21 +11,39 @@
 package io.github.mboegers.openrewrite.testngtojupiter;
 
 import io.github.mboegers.openrewrite.testngtojupiter.helper.AnnotationArguments;
+import io.github.mboegers.openrewrite.testngtojupiter.helper.Annotations;
 import io.github.mboegers.openrewrite.testngtojupiter.helper.FindAnnotation;
+import io.github.mboegers.openrewrite.testngtojupiter.table.FileStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.java.*;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
 
 import java.time.Duration;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
 
 @Value
 @EqualsAndHashCode(callSuper = false)
 public class MigrateTestAnnotation extends Recipe {
+
+    /**
+     * Arguments of TestNG @Test other recipes of this module migrate
+     */
+    static final Set<String> MIGRATED_ARGUMENTS = Set.of("enabled", "dataProvider", "dataProviderClass",
+            "invocationCount", "threadPoolSize");
+
+    transient MigrationStatistics statistics = new MigrationStatistics(this);
+    transient UnsupportedTestNgConstructs unsupportedConstructs = new UnsupportedTestNgConstructs(this);
+
     @Override
     public String getDisplayName() {
         return "Replace @Test Annotation";
@@ -43,7 +61,9 @@ public class MigrateTestAnnotation extends Recipe {
 
     @Override
     public TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new ReplaceTestAnnotationVisitor();
+        return Preconditions.check(
+                new UsesType<>("org.testng.annotations.Test", false),
+                new ReplaceTestAnnotationVisitor());
     }
 
     class ReplaceTestAnnotationVisitor extends JavaIsoVisitor<ExecutionContext> {
@@ -54,39 +74,56 @@ public class MigrateTestAnnotation extends Recipe {
         private static final String JUPITER_TEST = "org.junit.jupiter.api.Test";
         private static final String TEST_ANNOTATION = "@Test";
 
+        private FileStatistics fileStatistics = new FileStatistics();
+
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            fileStatistics = new FileStatistics();
+            J.CompilationUnit c = super.visitCompilationUnit(cu, ctx);
+            fileStatistics.insertRow(statistics, ctx, cu, MigrateTestAnnotation.this.getName());
+            return c;
+        }
+
         @Override
         public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
             method = super.visitMethodDeclaration(method, ctx);
 
             //return early if no TestNG used or still has arguments
-            var testNgAnnotation = FindAnnotation.findFirst(method, TESTNG_TEST_MATCHER);
+            var testNgAnnotation = FindAnnotation.findFirstDeclared(method, TESTNG_TEST_MATCHER);
             if (testNgAnnotation.isEmpty()) {
                 return method;
             }
 
             boolean hasArguments = AnnotationArguments.hasAny(testNgAnnotation.get());
             if (hasArguments) {
+                reportUnmigratedArguments(testNgAnnotation.get(), method, ctx);
                 return method;
             }
 
             // transform TestNG @Test to Jupiter
-            var addAnnotationCoordinate = method.getCoordinates().addAnnotation(Comparator.comparing(J.Annotation::getSimpleName));
-            var cursor = getCursor();
-            method = JavaTemplate
-                    .builder(TEST_ANNOTATION)
-                    .javaParser(JavaParser.fromJavaVersion().classpath("junit-jupiter-api"))
-                    .imports(JUPITER_TEST)
-                    .build()
-                    .apply(cursor, addAnnotationCoordinate);
+            method = Annotations.add(method, Annotations.of(TEST_ANNOTATION, List.of("junit-jupiter-api"), JUPITER_TEST),
+                    Comparator.comparing(J.Annotation::getSimpleName));
+            fileStatistics.annotationRewritten();
 
             // update imports
             maybeAddImport(JUPITER_TEST, false);
             maybeRemoveImport(TESTNG_TEST_FQN);
 
-            //remove old annotation
-            doAfterVisit(new RemoveAnnotationVisitor(TESTNG_TEST_MATCHER));
+            //remove old annotation of this method only, others may still have arguments
+            method = (J.MethodDeclaration) new RemoveAnnotationVisitor(TESTNG_TEST_MATCHER)
+                    .visitNonNull(method, ctx, getCursor().getParentOrThrow());
 
             return method;
         }
+
+        private void reportUnmigratedArguments(J.Annotation testNgAnnotation, J.MethodDeclaration method, ExecutionContext ctx) {
+            for (String argument : AnnotationArguments.names(testNgAnnotation)) {
+                if (!MIGRATED_ARGUMENTS.contains(argument)) {
+                    unsupportedConstructs.insertRow(ctx, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class),
+                            MigrateTestAnnotation.this.getName(), method, "@Test(" + argument + ")",
+                            "No Jupiter migration for this argument, TestNG @Test is kept");
+                }
+            }
+        }
     }
 }
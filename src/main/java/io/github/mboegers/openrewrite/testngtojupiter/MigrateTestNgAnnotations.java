@@ -0,0 +1,262 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import io.github.mboegers.openrewrite.testngtojupiter.helper.AnnotationArguments;
+import io.github.mboegers.openrewrite.testngtojupiter.helper.Annotations;
+import io.github.mboegers.openrewrite.testngtojupiter.helper.FindAnnotation;
+import io.github.mboegers.openrewrite.testngtojupiter.table.FileStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.AnnotationMatcher;
+import org.openrewrite.java.ChangeType;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.RemoveAnnotationVisitor;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Performs the annotation migrations of {@code io.github.mboegers.openrewrite.TestNgToJUnitJupiter} in a single
+ * traversal: {@linkplain MigrateEnabledArgument} and {@linkplain MigrateTestAnnotation}. The traversal also finds the
+ * lifecycle annotations, their types are changed afterwards with {@linkplain ChangeType} in files that use them.
+ */
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class MigrateTestNgAnnotations extends Recipe {
+
+    private static final String TESTNG_TEST = "org.testng.annotations.Test";
+    private static final AnnotationMatcher TESTNG_TEST_MATCHER = new AnnotationMatcher("@" + TESTNG_TEST);
+    private static final String JUPITER_TEST = "org.junit.jupiter.api.Test";
+    private static final String DISABLED = "org.junit.jupiter.api.Disabled";
+
+    private static final Map<String, String> LIFECYCLE_ANNOTATIONS = new LinkedHashMap<>();
+
+    static {
+        LIFECYCLE_ANNOTATIONS.put("org.testng.annotations.BeforeClass", "org.junit.jupiter.api.BeforeAll");
+        LIFECYCLE_ANNOTATIONS.put("org.testng.annotations.AfterClass", "org.junit.jupiter.api.AfterAll");
+        LIFECYCLE_ANNOTATIONS.put("org.testng.annotations.BeforeMethod", "org.junit.jupiter.api.BeforeEach");
+        LIFECYCLE_ANNOTATIONS.put("org.testng.annotations.AfterMethod", "org.junit.jupiter.api.AfterEach");
+    }
+
+    transient MigrationStatistics statistics = new MigrationStatistics(this);
+    transient UnsupportedTestNgConstructs unsupportedConstructs = new UnsupportedTestNgConstructs(this);
+
+    @Override
+    public String getDisplayName() {
+        return "Migrate TestNG annotations in a single pass";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Replace @org.testng.annotations.Test and its enabled argument with Jupiter equivalents in one traversal, then change the TestNG lifecycle annotations found by it.";
+    }
+
+    @Override
+    public Duration getEstimatedEffortPerOccurrence() {
+        return Duration.ofMinutes(3);
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return Preconditions.check(
+                new UsesType<>("org.testng.annotations.*", false),
+                new MigrateAnnotationsVisitor(getName(), statistics, unsupportedConstructs));
+    }
+
+    static class MigrateAnnotationsVisitor extends JavaIsoVisitor<ExecutionContext> {
+
+        private boolean migratedTest;
+        private boolean addedDisabled;
+        private final Set<String> changedLifecycleAnnotations = new HashSet<>();
+
+        private final String recipeName;
+        private final MigrationStatistics statistics;
+        private final UnsupportedTestNgConstructs unsupportedConstructs;
+        private FileStatistics fileStatistics = new FileStatistics();
+
+        MigrateAnnotationsVisitor(String recipeName, MigrationStatistics statistics,
+                                  UnsupportedTestNgConstructs unsupportedConstructs) {
+            this.recipeName = recipeName;
+            this.statistics = statistics;
+            this.unsupportedConstructs = unsupportedConstructs;
+        }
+
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            fileStatistics = new FileStatistics();
+            migratedTest = false;
+            addedDisabled = false;
+            changedLifecycleAnnotations.clear();
+
+            J.CompilationUnit c = super.visitCompilationUnit(cu, ctx);
+
+            // update imports and lifecycle annotation types in the order of the declarative recipe list
+            if (migratedTest) {
+                maybeAddImport(JUPITER_TEST, false);
+                maybeRemoveImport(TESTNG_TEST);
+            }
+            if (addedDisabled) {
+                maybeAddImport(DISABLED, false);
+            }
+            LIFECYCLE_ANNOTATIONS.forEach((testNg, jupiter) -> {
+                if (changedLifecycleAnnotations.contains(testNg)) {
+                    doAfterVisit(new ChangeType(testNg, jupiter, true).getVisitor());
+                }
+            });
+
+            fileStatistics.insertRow(statistics, ctx, cu, recipeName);
+            return c;
+        }
+
+        @Override
+        public J.Import visitImport(J.Import _import, ExecutionContext ctx) {
+            // imports are updated after the traversal
+            return _import;
+        }
+
+        @Override
+        public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, ExecutionContext ctx) {
+            J.FieldAccess fa = super.visitFieldAccess(fieldAccess, ctx);
+
+            // fully qualified lifecycle annotation references
+            for (String lifecycle : LIFECYCLE_ANNOTATIONS.keySet()) {
+                if (fa.isFullyQualifiedClassReference(lifecycle)) {
+                    changedLifecycleAnnotations.add(lifecycle);
+                    fileStatistics.annotationRewritten();
+                }
+            }
+
+            return fa;
+        }
+
+        @Override
+        public J.Identifier visitIdentifier(J.Identifier identifier, ExecutionContext ctx) {
+            J.Identifier i = super.visitIdentifier(identifier, ctx);
+
+            JavaType.FullyQualified type = TypeUtils.asFullyQualified(i.getType());
+            if (type == null || !LIFECYCLE_ANNOTATIONS.containsKey(type.getFullyQualifiedName())
+                || !i.getSimpleName().equals(type.getClassName())
+                || getCursor().getParentTreeCursor().getValue() instanceof J.FieldAccess fa && fa.getName() == identifier) {
+                return i;
+            }
+
+            changedLifecycleAnnotations.add(type.getFullyQualifiedName());
+            fileStatistics.annotationRewritten();
+            return i;
+        }
+
+        @Override
+        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+            // the enabled argument is removed while visiting the annotation, so look at it first
+            Optional<J.Annotation> declaredTestNgAnnotation = FindAnnotation.findFirstDeclared(method, TESTNG_TEST_MATCHER);
+            Optional<Boolean> enabled = declaredTestNgAnnotation
+                    .flatMap(a -> AnnotationArguments.extractLiteral(a, "enabled", Boolean.class));
+            boolean disable = enabled.map(e -> !e).orElse(false);
+            if (enabled.isEmpty() && declaredTestNgAnnotation
+                    .filter(a -> !AnnotationArguments.extractAssignments(a, "enabled").isEmpty()).isPresent()) {
+                unsupportedConstructs.insertRow(ctx, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class),
+                        recipeName, method, "@Test(enabled)",
+                        "Value is not a literal, the argument is removed without adding @Disabled");
+            }
+
+            J.MethodDeclaration m = super.visitMethodDeclaration(method, ctx);
+
+            // add @Disabled if enabled=false
+            if (disable) {
+                m = Annotations.add(m, Annotations.of("@Disabled", List.of("junit-jupiter-api"), DISABLED),
+                        Comparator.comparing(J.Annotation::getSimpleName));
+                addedDisabled = true;
+                fileStatistics.annotationRewritten();
+            }
+
+            // only TestNG @Test without remaining arguments can be migrated
+            Optional<J.Annotation> testNgAnnotation = FindAnnotation.findFirstDeclared(m, TESTNG_TEST_MATCHER);
+            if (testNgAnnotation.isEmpty()) {
+                return m;
+            }
+            if (AnnotationArguments.hasAny(testNgAnnotation.get())) {
+                for (String argument : AnnotationArguments.names(testNgAnnotation.get())) {
+                    if (!MigrateTestAnnotation.MIGRATED_ARGUMENTS.contains(argument)) {
+                        unsupportedConstructs.insertRow(ctx, getCursor().firstEnclosingOrThrow(J.CompilationUnit.class),
+                                recipeName, m, "@Test(" + argument + ")",
+                                "No Jupiter migration for this argument, TestNG @Test is kept");
+                    }
+                }
+                return m;
+            }
+
+            migratedTest = true;
+            fileStatistics.annotationRewritten();
+            return replaceTestAnnotation(m, testNgAnnotation.get(), ctx);
+        }
+
+        @Override
+        public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
+            J.Annotation a = super.visitAnnotation(annotation, ctx);
+
+            // remove argument assigment
+            if (TESTNG_TEST_MATCHER.matches(a) && !AnnotationArguments.extractAssignments(a, "enabled").isEmpty()) {
+                a = AnnotationArguments.removeAssignment(a, "enabled");
+                fileStatistics.annotationRewritten();
+            }
+
+            return a;
+        }
+
+        /**
+         * Replaces TestNG @Test in place if Jupiter @Test would be sorted into the same position, otherwise
+         * add Jupiter @Test in sorted position and remove the TestNG one like {@linkplain MigrateTestAnnotation} does
+         */
+        private J.MethodDeclaration replaceTestAnnotation(J.MethodDeclaration m, J.Annotation testNgAnnotation, ExecutionContext ctx) {
+            List<J.Annotation> leadingAnnotations = m.getLeadingAnnotations();
+            int index = leadingAnnotations.indexOf(testNgAnnotation);
+            if (index >= 0 && testNgAnnotation.getAnnotationType() instanceof J.Identifier testNgType
+                && sortedPosition(leadingAnnotations, index) == index) {
+                J.Annotation jupiterAnnotation = testNgAnnotation
+                        .withAnnotationType(testNgType.withType(JavaType.ShallowClass.build(JUPITER_TEST)))
+                        .withArguments(null);
+                return m.withLeadingAnnotations(ListUtils.map(leadingAnnotations,
+                        a -> a == testNgAnnotation ? jupiterAnnotation : a));
+            }
+
+            m = Annotations.add(m, Annotations.of("@Test", List.of("junit-jupiter-api"), JUPITER_TEST),
+                    Comparator.comparing(J.Annotation::getSimpleName));
+            return (J.MethodDeclaration) new RemoveAnnotationVisitor(TESTNG_TEST_MATCHER)
+                    .visitNonNull(m, ctx, getCursor().getParentOrThrow());
+        }
+
+        private static int sortedPosition(List<J.Annotation> annotations, int replaced) {
+            int position = 0;
+            for (int i = 0; i < annotations.size(); i++) {
+                if (i == replaced) {
+                    continue;
+                }
+                if ("Test".compareTo(annotations.get(i).getSimpleName()) < 0) {
+                    return position;
+                }
+                position++;
+            }
+            return position;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package io.github.mboegers.openrewrite.testngtojupiter.helper;
 
+import org.openrewrite.internal.ListUtils;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Answer questions regarding annotation arguments and there values
@@ -52,6 +54,24 @@ public final class AnnotationArguments {
                 .toList();
     }
 
+    /**
+     * Names of all arguments of the annotation, {@code value} for an argument without name
+     *
+     * @param annotation to get the argument names of
+     * @return the names in declaration order
+     */
+    public static List<String> names(J.Annotation annotation) {
+        if (!hasAny(annotation)) {
+            return List.of();
+        }
+
+        return annotation.getArguments().stream()
+                .map(arg -> arg instanceof J.Assignment assignment && assignment.getVariable() instanceof J.Identifier variable
+                        ? variable.getSimpleName()
+                        : "value")
+                .toList();
+    }
+
     /**
      * Extract an annotation argument as literal
      *
@@ -75,4 +95,36 @@ public final class AnnotationArguments {
                 .map(J.Literal::getValue)
                 .map(valueClass::cast);
     }
+
+    /**
+     * Removes all assignments with the given argument name from the annotation, formatted like
+     * {@linkplain org.openrewrite.java.RemoveAnnotationAttribute} does
+     *
+     * @param annotation   to remove the assignments from
+     * @param argumentName to remove
+     * @return the annotation without the argument, without parentheses if no arguments are left
+     */
+    public static J.Annotation removeAssignment(J.Annotation annotation, String argumentName) {
+        AtomicBoolean didPassFirstArgument = new AtomicBoolean(false);
+        AtomicBoolean shouldTrimNextPrefix = new AtomicBoolean(false);
+        return annotation.withArguments(ListUtils.map(annotation.getArguments(), arg -> {
+            try {
+                if (arg instanceof J.Assignment assignment
+                    && assignment.getVariable() instanceof J.Identifier variable
+                    && argumentName.equals(variable.getSimpleName())) {
+                    if (!didPassFirstArgument.get()) {
+                        shouldTrimNextPrefix.set(true);
+                    }
+                    return null;
+                }
+                if (shouldTrimNextPrefix.get()) {
+                    shouldTrimNextPrefix.set(false);
+                    return arg.withPrefix(arg.getPrefix().withWhitespace(""));
+                }
+            } finally {
+                didPassFirstArgument.set(true);
+            }
+            return arg;
+        }));
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.helper;
+
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.Space;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds type attributed {@linkplain J.Annotation}s and adds them to declarations without a {@linkplain JavaTemplate}.
+ * <p>
+ * Applying a template parses a stub for every insertion. Annotations handed out here are parsed once per JVM into a
+ * prototype and copied with fresh ids, adding one only touches the annotation list of the declaration and the
+ * whitespace in front of the next element.
+ *
+ * @see JavaTemplates
+ */
+public final class Annotations {
+
+    private static final Map<Key, J.Annotation> PROTOTYPES = new ConcurrentHashMap<>();
+
+    private Annotations() {
+    }
+
+    /**
+     * Build an annotation, parsing it on first use
+     *
+     * @param code      of the annotation, like {@code @TestInstance(TestInstance.Lifecycle.PER_CLASS)}
+     * @param classpath artifact names the annotation type is resolved from
+     * @param imports   fully qualified types the code refers to
+     * @return a new annotation without prefix
+     * @throws IllegalStateException if the annotation type cannot be resolved
+     */
+    public static J.Annotation of(String code, List<String> classpath, String... imports) {
+        J.Annotation prototype = PROTOTYPES.computeIfAbsent(new Key(code, classpath, List.of(imports)), Annotations::parse);
+        return (J.Annotation) new JavaVisitor<Integer>() {
+            @Override
+            public J preVisit(J tree, Integer p) {
+                return tree.withId(Tree.randomId());
+            }
+        }.visitNonNull(prototype, 0);
+    }
+
+    /**
+     * Replace the value of the string literal arguments
+     *
+     * @param annotation with a string literal argument, like {@code @MethodSource("")}
+     * @param value      the new value
+     * @return the annotation with the new value
+     */
+    public static J.Annotation withStringValue(J.Annotation annotation, String value) {
+        String valueSource = "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        return annotation.withArguments(ListUtils.map(annotation.getArguments(),
+                argument -> argument instanceof J.Literal literal && literal.getValue() instanceof String
+                        ? literal.withValue(value).withValueSource(valueSource)
+                        : argument));
+    }
+
+    /**
+     * Add an annotation to the leading annotations of a method on a line of its own
+     *
+     * @param method     to annotate
+     * @param annotation to add
+     * @param order      the annotation is inserted before the first annotation ordered after it
+     * @return the annotated method
+     */
+    public static J.MethodDeclaration add(J.MethodDeclaration method, J.Annotation annotation, Comparator<J.Annotation> order) {
+        String indent = method.getPrefix().getIndent();
+        J.MethodDeclaration m = method;
+        if (m.getLeadingAnnotations().isEmpty()) {
+            // the declaration continues on the line after the annotation
+            if (!m.getModifiers().isEmpty()) {
+                m = m.withModifiers(ListUtils.mapFirst(m.getModifiers(), modifier -> onNewLine(modifier, indent)));
+            } else if (m.getPadding().getTypeParameters() != null) {
+                m = m.getPadding().withTypeParameters(onNewLine(m.getPadding().getTypeParameters(), indent));
+            } else if (m.getReturnTypeExpression() != null) {
+                m = m.withReturnTypeExpression(onNewLine(m.getReturnTypeExpression(), indent));
+            } else {
+                m = m.withName(onNewLine(m.getName(), indent));
+            }
+        }
+        return m.withLeadingAnnotations(insert(m.getLeadingAnnotations(), annotation, order, indent));
+    }
+
+    /**
+     * Add an annotation to the leading annotations of a class on a line of its own
+     *
+     * @param classDecl  to annotate
+     * @param annotation to add
+     * @param order      the annotation is inserted before the first annotation ordered after it
+     * @return the annotated class
+     */
+    public static J.ClassDeclaration add(J.ClassDeclaration classDecl, J.Annotation annotation, Comparator<J.Annotation> order) {
+        String indent = classDecl.getPrefix().getIndent();
+        J.ClassDeclaration c = classDecl;
+        if (c.getLeadingAnnotations().isEmpty()) {
+            // the declaration continues on the line after the annotation
+            if (!c.getModifiers().isEmpty()) {
+                c = c.withModifiers(ListUtils.mapFirst(c.getModifiers(), modifier -> onNewLine(modifier, indent)));
+            } else {
+                c = c.getPadding().withKind(onNewLine(c.getPadding().getKind(), indent));
+            }
+        }
+        return c.withLeadingAnnotations(insert(c.getLeadingAnnotations(), annotation, order, indent));
+    }
+
+    private static List<J.Annotation> insert(List<J.Annotation> annotations, J.Annotation annotation,
+                                             Comparator<J.Annotation> order, String indent) {
+        int index = 0;
+        while (index < annotations.size() && order.compare(annotation, annotations.get(index)) >= 0) {
+            index++;
+        }
+
+        List<J.Annotation> inserted = new ArrayList<>(annotations.size() + 1);
+        inserted.addAll(annotations);
+        if (index == 0) {
+            // the first annotation starts right after the prefix of the declaration
+            inserted.add(0, annotation.withPrefix(Space.EMPTY));
+            if (inserted.size() > 1) {
+                inserted.set(1, onNewLine(inserted.get(1), indent));
+            }
+        } else {
+            inserted.add(index, onNewLine(annotation.withPrefix(Space.EMPTY), indent));
+        }
+        return inserted;
+    }
+
+    private static <T extends J> T onNewLine(T tree, String indent) {
+        return tree.withPrefix(tree.getPrefix().withWhitespace("\n" + indent));
+    }
+
+    private static J.Annotation parse(Key key) {
+        StringBuilder stub = new StringBuilder();
+        for (String type : key.imports()) {
+            stub.append("import ").append(type).append(";\n");
+        }
+        stub.append(key.code()).append("\nclass Stub {\n}\n");
+
+        List<SourceFile> sourceFiles = JavaTemplates.parser(key.classpath())
+                .clone()
+                .build()
+                .parse(new InMemoryExecutionContext(), stub.toString())
+                .toList();
+        if (sourceFiles.size() == 1 && sourceFiles.get(0) instanceof J.CompilationUnit cu
+            && !cu.getClasses().isEmpty() && !cu.getClasses().get(0).getLeadingAnnotations().isEmpty()) {
+            J.Annotation annotation = cu.getClasses().get(0).getLeadingAnnotations().get(0);
+            if (annotation.getType() instanceof JavaType.FullyQualified && !(annotation.getType() instanceof JavaType.Unknown)) {
+                return annotation.withPrefix(Space.EMPTY);
+            }
+        }
+        throw new IllegalStateException("cannot resolve " + key.code() + " against " + key.classpath());
+    }
+
+    private record Key(String code, List<String> classpath, List<String> imports) {
+        private Key {
+            classpath = List.copyOf(classpath);
+        }
+    }
+}
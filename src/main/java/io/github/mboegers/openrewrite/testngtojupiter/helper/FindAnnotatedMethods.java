@@ -5,9 +5,12 @@ import org.openrewrite.TreeVisitor;
 import org.openrewrite.java.AnnotationMatcher;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.Statement;
 import org.openrewrite.marker.SearchResult;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -33,12 +36,28 @@ public class FindAnnotatedMethods extends JavaIsoVisitor<ExecutionContext> {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Collect the annotated methods declared directly in the class, methods of nested classes are not considered
+     *
+     * @param classDecl         to search
+     * @param annotationMatcher to match the method annotations against
+     * @return the matching methods in declaration order
+     */
+    public static List<J.MethodDeclaration> collectMembers(J.ClassDeclaration classDecl, AnnotationMatcher annotationMatcher) {
+        List<J.MethodDeclaration> found = new ArrayList<>();
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (statement instanceof J.MethodDeclaration method && FindAnnotation.isDeclaredOn(method, annotationMatcher)) {
+                found.add(method);
+            }
+        }
+        return found;
+    }
+
     @Override
     public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
         J.MethodDeclaration m = super.visitMethodDeclaration(method, ctx);
 
-        boolean isAnnotatedWithTargetAnnotation = m.getLeadingAnnotations().stream().anyMatch(annotationMatcher::matches);
-        if (isAnnotatedWithTargetAnnotation) {
+        if (FindAnnotation.isDeclaredOn(m, annotationMatcher)) {
             m = SearchResult.found(m);
         }
 
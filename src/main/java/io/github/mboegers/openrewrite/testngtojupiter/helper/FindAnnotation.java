@@ -8,6 +8,7 @@ import org.openrewrite.java.tree.J;
 import org.openrewrite.marker.SearchResult;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -26,6 +27,50 @@ public class FindAnnotation extends JavaIsoVisitor<ExecutionContext> {
         this.annotationMatcher = annotationMatcher;
     }
 
+    /**
+     * Find the first matching annotation declared on the given declaration itself.
+     * <p>
+     * The leading annotations, the annotations between the modifiers and those in front of the return or variable
+     * type are checked in source order, the body is never visited and the lookup stops at the first match.
+     * Unlike {@link #findFirst(J, AnnotationMatcher)} a method is not considered annotated because a member of a local
+     * or anonymous class in its body is, neither is a class because one of its nested classes is.
+     *
+     * @param declaration       class, method or variable declaration to check
+     * @param annotationMatcher to match the annotations against
+     * @return the matching annotation or Optional#empty
+     */
+    public static Optional<J.Annotation> findFirstDeclared(J declaration, AnnotationMatcher annotationMatcher) {
+        List<J.Annotation> annotations;
+        if (declaration instanceof J.MethodDeclaration m) {
+            annotations = m.getAllAnnotations();
+        } else if (declaration instanceof J.ClassDeclaration c) {
+            annotations = c.getAllAnnotations();
+        } else if (declaration instanceof J.VariableDeclarations v) {
+            annotations = v.getAllAnnotations();
+        } else {
+            return Optional.empty();
+        }
+
+        for (J.Annotation annotation : annotations) {
+            if (annotationMatcher.matches(annotation)) {
+                return Optional.of(annotation);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Determines if the given declaration itself is annotated with a matching annotation
+     *
+     * @param declaration       class, method or variable declaration to check
+     * @param annotationMatcher to match the annotations against
+     * @return true if a matching annotation is declared
+     * @see #findFirstDeclared(J, AnnotationMatcher)
+     */
+    public static boolean isDeclaredOn(J declaration, AnnotationMatcher annotationMatcher) {
+        return findFirstDeclared(declaration, annotationMatcher).isPresent();
+    }
+
     public static Optional<J.Annotation> findFirst(J tree, AnnotationMatcher annotationMatcher) {
         return TreeVisitor.collect(new FindAnnotation(annotationMatcher), tree, new HashSet<>(), J.Annotation.class, Function.identity()).stream().findFirst();
     }
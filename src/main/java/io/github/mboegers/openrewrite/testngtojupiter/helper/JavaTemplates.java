@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.helper;
+
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared {@linkplain JavaParser.Builder}s backing {@linkplain JavaTemplate}s.
+ * <p>
+ * Resolving a parser classpath scans the runtime classpath, so building a parser inside a visit method
+ * pays that price for every visited tree. Parsers handed out here are resolved once per JVM and shared
+ * between all templates with the same classpath.
+ *
+ * @see JavaTemplate
+ */
+public final class JavaTemplates {
+
+    private static final Map<List<String>, JavaParser.Builder<?, ?>> PARSERS = new ConcurrentHashMap<>();
+
+    private JavaTemplates() {
+    }
+
+    /**
+     * Get the parser for the given classpath, resolving the classpath on first use
+     * <p>
+     * The builder carries the resolved jar paths instead of artifact names, templates clone it for every compilation
+     * and a clone with artifact names would scan the runtime classpath again. Call {@code build()} on a
+     * {@code clone()}, the builder is shared between threads.
+     *
+     * @param classpath artifact names to resolve
+     * @return the shared parser builder
+     */
+    public static JavaParser.Builder<?, ?> parser(List<String> classpath) {
+        return PARSERS.computeIfAbsent(List.copyOf(classpath),
+                cp -> JavaParser.fromJavaVersion().classpath(JavaParser.dependenciesFromClasspath(cp.toArray(String[]::new))));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider.DataProviderIndex;
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider.Provider;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Selects the entries of a {@linkplain DataProviderIndex} the migration of one file depends on.
+ * <p>
+ * A test depends on the providers it names in {@code dataProvider}, a provider class on its own providers and on the
+ * number of tests consuming them. Either way the file mentions the provider name or method name, so the facts of a
+ * file are the providers whose names occur in it as a word. Unrelated providers sharing a name are included as well,
+ * related ones are never missed, so a cache keyed by content and facts is only invalidated for the files a changed
+ * provider can affect.
+ */
+final class CrossFileFacts {
+
+    private static final Pattern WORD = Pattern.compile("\\p{javaJavaIdentifierPart}+");
+
+    private final DataProviderIndex index;
+    private final Map<String, List<Provider>> providersByWord = new HashMap<>();
+    private final Map<String, List<Provider>> providersByPhrase = new HashMap<>();
+
+    /**
+     * @param index to select from, must not change while facts are selected
+     */
+    CrossFileFacts(DataProviderIndex index) {
+        this.index = index;
+        for (Provider provider : index.providers()) {
+            for (String name : new HashSet<>(List.of(provider.name(), provider.methodName()))) {
+                (WORD.matcher(name).matches() ? providersByWord : providersByPhrase)
+                        .computeIfAbsent(name, n -> new ArrayList<>())
+                        .add(provider);
+            }
+        }
+    }
+
+    /**
+     * Describe the facts a file depends on
+     *
+     * @param content of the file
+     * @return the providers the file may depend on and their number of consumers, empty if there are none
+     */
+    String of(byte[] content) {
+        String text = new String(content, StandardCharsets.UTF_8);
+        SortedSet<String> facts = new TreeSet<>();
+        Matcher words = WORD.matcher(text);
+        while (words.find()) {
+            for (Provider provider : providersByWord.getOrDefault(words.group(), List.of())) {
+                facts.add(describe(provider));
+            }
+        }
+        providersByPhrase.forEach((phrase, providers) -> {
+            if (text.contains(phrase)) {
+                providers.forEach(provider -> facts.add(describe(provider)));
+            }
+        });
+        return String.join("\n", facts);
+    }
+
+    private String describe(Provider provider) {
+        return provider + " consumers=" + index.consumers(provider);
+    }
+}
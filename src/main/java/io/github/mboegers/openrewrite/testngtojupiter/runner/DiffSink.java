@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a unified diff of every changed file to one patch per module, leaving the tree untouched.
+ * <p>
+ * A module is the nearest directory containing a Maven or Gradle build file, files outside any module belong to the
+ * {@linkplain #ROOT_MODULE root} of the tree. The patch of a module is written to the module's directory mirrored
+ * below the output directory, so distinct modules never share a patch. Each diff is appended to the module's patch as
+ * soon as the file is migrated, so memory holds one diff per worker, not the patch. The patches apply with
+ * {@code git apply} from the root of the tree.
+ */
+final class DiffSink implements ResultSink {
+
+    static final Path ROOT_MODULE = Path.of("");
+
+    private static final List<String> BUILD_FILES = List.of("pom.xml", "build.gradle", "build.gradle.kts");
+
+    private final Path root;
+    private final Path directory;
+    private final boolean gzip;
+    private final Map<Path, Path> modules = new ConcurrentHashMap<>();
+    private final Map<Path, OutputStream> patches = new ConcurrentHashMap<>();
+
+    /**
+     * @param root      of the tree, source paths are relative to it
+     * @param directory to write the patches to
+     * @param gzip      whether to compress the patches
+     */
+    DiffSink(Path root, Path directory, boolean gzip) throws IOException {
+        this.root = root;
+        this.directory = Files.createDirectories(directory);
+        this.gzip = gzip;
+    }
+
+    /**
+     * Get the path of the patch of a module
+     *
+     * @param module directory of the module relative to the root of the tree
+     * @param gzip   whether the patch is compressed
+     * @return path of the patch relative to the output directory
+     */
+    static Path patchPath(Path module, boolean gzip) {
+        return module.resolve(gzip ? "changes.diff.gz" : "changes.diff");
+    }
+
+    @Override
+    public void accept(Path sourcePath, byte[] before, byte[] after) throws IOException {
+        byte[] diff = UnifiedDiff.diff(Shard.normalize(sourcePath), before, after);
+        if (diff.length == 0) {
+            return;
+        }
+
+        OutputStream patch;
+        try {
+            patch = patches.computeIfAbsent(module(sourcePath.getParent()), this::open);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        synchronized (patch) {
+            patch.write(diff);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (OutputStream patch : patches.values()) {
+            try {
+                synchronized (patch) {
+                    patch.close();
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Path module(@Nullable Path sourceDirectory) {
+        Path dir = sourceDirectory == null ? ROOT_MODULE : sourceDirectory;
+        Path known = modules.get(dir);
+        if (known != null) {
+            return known;
+        }
+
+        Path module;
+        if (BUILD_FILES.stream().anyMatch(buildFile -> Files.isRegularFile(root.resolve(dir).resolve(buildFile)))) {
+            module = dir;
+        } else if (dir.toString().isEmpty()) {
+            module = ROOT_MODULE;
+        } else {
+            module = module(dir.getParent());
+        }
+        modules.putIfAbsent(dir, module);
+        return module;
+    }
+
+    private OutputStream open(Path module) {
+        try {
+            Path patch = directory.resolve(patchPath(module, gzip));
+            Files.createDirectories(patch.getParent());
+            OutputStream out = Files.newOutputStream(patch);
+            return new BufferedOutputStream(gzip ? new GZIPOutputStream(out) : out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
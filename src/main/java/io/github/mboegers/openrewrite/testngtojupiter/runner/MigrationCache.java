@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import org.openrewrite.Recipe;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * On disk cache of migration results keyed by the SHA-256 of a file's content and the facts of other files its
+ * migration depends on.
+ * <p>
+ * Entries live in a directory named after a fingerprint of the recipe name, the parser classpath, the recipe artifact
+ * and the rewrite version, so a new recipe jar never sees results of an old one. Entries are written to a temporary
+ * file and moved into place, so concurrent workers and crashed runs never leave partial entries behind.
+ */
+final class MigrationCache {
+
+    private static final String UNCHANGED = ".unchanged";
+    private static final String CHANGED = ".changed";
+
+    private final Path directory;
+
+    /**
+     * @param cacheDirectory root of all caches
+     * @param fingerprint    of the recipes producing the results, see {@linkplain #fingerprint(String, Collection)}
+     */
+    MigrationCache(Path cacheDirectory, String fingerprint) throws IOException {
+        this.directory = Files.createDirectories(cacheDirectory.resolve(fingerprint));
+    }
+
+    /**
+     * A cached result
+     *
+     * @param after the migrated content, {@code null} if the recipe did not change the file
+     */
+    record Entry(@Nullable byte[] after) {
+        boolean unchanged() {
+            return after == null;
+        }
+    }
+
+    /**
+     * Hash a file's content the way the cache keys it
+     *
+     * @param content of the file
+     * @return the key of the content
+     */
+    static String hash(byte[] content) {
+        return HexFormat.of().formatHex(sha256().digest(content));
+    }
+
+    /**
+     * Hash a file's content together with the facts of other files its migration depends on
+     *
+     * @param content        of the file
+     * @param crossFileFacts the result depends on besides the content, see {@linkplain CrossFileFacts}
+     * @return the key of the content and facts, the key of the content alone if there are no facts
+     */
+    static String hash(byte[] content, String crossFileFacts) {
+        if (crossFileFacts.isEmpty()) {
+            return hash(content);
+        }
+        MessageDigest digest = sha256();
+        digest.update(content);
+        digest.update((byte) 0);
+        digest.update(crossFileFacts.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Fingerprint of a recipe, the parser classpath, the artifact containing this class and the rewrite version
+     * <p>
+     * Types resolve against the classpath, so a different TestNG or Jupiter jar can change the results. Classpath
+     * entries are identified by path, size and modification time instead of their content to keep startup fast.
+     *
+     * @param recipe    name of the recipe to run
+     * @param classpath the sources are parsed with
+     * @return fingerprint changing whenever one of the inputs changes
+     */
+    static String fingerprint(String recipe, Collection<Path> classpath) {
+        MessageDigest digest = sha256();
+        digest.update(recipe.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(String.valueOf(Recipe.class.getPackage().getImplementationVersion()).getBytes(StandardCharsets.UTF_8));
+
+        CodeSource codeSource = MigrationCache.class.getProtectionDomain().getCodeSource();
+        try {
+            for (Path entry : classpath) {
+                digest.update((byte) 0);
+                digest.update(entry.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+                if (Files.isRegularFile(entry)) {
+                    digest.update((Files.size(entry) + ":" + Files.getLastModifiedTime(entry).toMillis())
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            Path location = Path.of(codeSource.getLocation().toURI());
+            if (Files.isRegularFile(location)) {
+                digest.update(Files.readAllBytes(location));
+            } else {
+                // exploded classes during development
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(location)) {
+                    files = walk.filter(Files::isRegularFile).sorted().toList();
+                }
+                for (Path file : files) {
+                    digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("cannot locate recipe artifact " + codeSource.getLocation(), e);
+        }
+
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    Optional<Entry> lookup(String hash) throws IOException {
+        Path shard = shard(hash);
+        if (Files.exists(shard.resolve(hash + UNCHANGED))) {
+            return Optional.of(new Entry(null));
+        }
+        try {
+            return Optional.of(new Entry(Files.readAllBytes(shard.resolve(hash + CHANGED))));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    void recordUnchanged(String hash) throws IOException {
+        store(hash + UNCHANGED, new byte[0], hash);
+    }
+
+    void recordChanged(String hash, byte[] after) throws IOException {
+        store(hash + CHANGED, after, hash);
+    }
+
+    private void store(String name, byte[] content, String hash) throws IOException {
+        Path shard = Files.createDirectories(shard(hash));
+        Path temp = Files.createTempFile(shard, name, ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, shard.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path shard(String hash) {
+        return directory.resolve(hash.substring(0, 2));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider.DataProviderIndex;
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider.Provider;
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider.Reference;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append only journal of migrated files, so a restarted run skips the work a crashed run finished.
+ * <p>
+ * Each line holds the source path and the SHA-256 of the file as the run left it. A file counts as finished while
+ * its content still has that hash, so files edited after the crash are migrated again. The journal is flushed after
+ * every batch, a killed run loses at most the batches in flight and a torn last line is ignored.
+ * <p>
+ * The data provider index is journaled as well. Migrated provider classes no longer declare {@code @DataProvider}
+ * and migrated tests no longer name their provider, so a resumed run could not index them again.
+ */
+final class MigrationJournal implements Closeable {
+
+    private static final int HASH_LENGTH = 64;
+    private static final String PROVIDER = "provider";
+    private static final String REFERENCE = "reference";
+    private static final String PROVIDERS_INDEXED = "indexed";
+
+    private final Path root;
+    private final Map<String, String> finished = new ConcurrentHashMap<>();
+    @Nullable
+    private final DataProviderIndex index;
+    private final BufferedWriter writer;
+
+    MigrationJournal(Path file, Path root) throws IOException {
+        this.root = root;
+        DataProviderIndex journaledIndex = new DataProviderIndex();
+        int journaledEntries = 0;
+        boolean indexed = false;
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] columns = line.split("\t");
+                if (columns.length == 2 && columns[0].length() == HASH_LENGTH) {
+                    finished.put(columns[1], columns[0]);
+                } else if (columns.length == 6 && PROVIDER.equals(columns[0])) {
+                    journaledIndex.add(new Provider(columns[1], columns[2], columns[3], columns[4],
+                            Boolean.parseBoolean(columns[5])));
+                    journaledEntries++;
+                } else if (columns.length == 4 && REFERENCE.equals(columns[0])) {
+                    journaledIndex.add(new Reference(columns[1], columns[2], columns[3]));
+                    journaledEntries++;
+                } else if (columns.length == 2 && PROVIDERS_INDEXED.equals(columns[0])
+                           && columns[1].equals(String.valueOf(journaledEntries))) {
+                    indexed = true;
+                }
+            }
+        }
+        this.index = indexed ? journaledIndex : null;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Get the data provider index a previous run built
+     *
+     * @return the providers and their consumers or {@code null} if no run completed indexing
+     */
+    @Nullable
+    DataProviderIndex indexed() {
+        return index;
+    }
+
+    /**
+     * Record the data provider index, before any file is migrated
+     *
+     * @param indexed all providers of the tree and their consumers
+     * @throws IOException if the journal cannot be written
+     */
+    void indexed(DataProviderIndex indexed) throws IOException {
+        synchronized (writer) {
+            List<Provider> providers = indexed.providers();
+            List<Reference> references = indexed.references();
+            for (Provider provider : providers) {
+                writer.write(String.join("\t", PROVIDER, provider.declaringClass(), provider.methodName(),
+                        provider.name(), provider.wrapperName(), String.valueOf(provider.parallel())));
+                writer.newLine();
+            }
+            for (Reference reference : references) {
+                writer.write(String.join("\t", REFERENCE, reference.declaringClass(), reference.name(), reference.consumer()));
+                writer.newLine();
+            }
+            writer.write(PROVIDERS_INDEXED + "\t" + (providers.size() + references.size()));
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    /**
+     * Drop the files a previous run finished
+     *
+     * @param files   to check
+     * @param resumed counts the dropped files
+     * @return the files still to migrate
+     */
+    List<Path> unfinished(List<Path> files, LongAdder resumed) {
+        if (finished.isEmpty()) {
+            return files;
+        }
+
+        List<Path> unfinished = new ArrayList<>(files.size());
+        for (Path file : files) {
+            String hash = finished.get(Shard.normalize(root.relativize(file)));
+            try {
+                if (hash != null && hash.equals(MigrationCache.hash(Files.readAllBytes(file)))) {
+                    resumed.increment();
+                    continue;
+                }
+            } catch (IOException e) {
+                // let the migration report unreadable files
+            }
+            unfinished.add(file);
+        }
+        return unfinished;
+    }
+
+    /**
+     * Record files as finished with their current content
+     *
+     * @param files migrated by one batch
+     * @throws IOException if the journal cannot be written
+     */
+    void finish(List<Path> files) throws IOException {
+        List<String> lines = new ArrayList<>(files.size());
+        for (Path file : files) {
+            lines.add(MigrationCache.hash(Files.readAllBytes(file)) + "\t" + Shard.normalize(root.relativize(file)));
+        }
+
+        synchronized (writer) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+}
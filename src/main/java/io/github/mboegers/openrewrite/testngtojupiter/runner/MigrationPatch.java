@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results of a run stored in a directory instead of the tree, to be merged with the results of other shards.
+ * <p>
+ * The directory holds the migrated files below {@code files/} and a {@code manifest.tsv} with one line per file:
+ * the SHA-256 of the content before and after the migration and the source path. Opening an existing patch
+ * appends to it, so a resumed run completes the patch of the crashed one.
+ *
+ * @see ShardMerge
+ */
+final class MigrationPatch implements ResultSink {
+
+    static final String MANIFEST = "manifest.tsv";
+    static final String FILES = "files";
+
+    private final Path directory;
+    private final BufferedWriter manifest;
+
+    MigrationPatch(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.manifest = Files.newBufferedWriter(directory.resolve(MANIFEST), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * A migrated file of a patch
+     *
+     * @param sourcePath relative to the root with {@code /} separators
+     * @param beforeHash SHA-256 of the content the recipe ran on
+     * @param afterHash  SHA-256 of the migrated content
+     * @param after      file holding the migrated content
+     */
+    record Change(String sourcePath, String beforeHash, String afterHash, Path after) {
+    }
+
+    @Override
+    public void accept(Path sourcePath, byte[] before, byte[] after) throws IOException {
+        String normalized = Shard.normalize(sourcePath);
+        Path file = directory.resolve(FILES).resolve(normalized);
+        Files.createDirectories(file.getParent());
+        Files.write(file, after);
+
+        synchronized (manifest) {
+            manifest.write(MigrationCache.hash(before) + "\t" + MigrationCache.hash(after) + "\t" + normalized);
+            manifest.newLine();
+            manifest.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (manifest) {
+            manifest.close();
+        }
+    }
+
+    /**
+     * Read the changes of a patch
+     *
+     * @param directory of the patch
+     * @return the changes in the order they were written
+     * @throws IOException if the patch cannot be read
+     */
+    static List<Change> read(Path directory) throws IOException {
+        List<Change> changes = new ArrayList<>();
+        for (String line : Files.readAllLines(directory.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] columns = line.split("\t", 3);
+            if (columns.length != 3) {
+                throw new IOException("malformed line in " + directory.resolve(MANIFEST) + ": " + line);
+            }
+            if (!Files.isRegularFile(directory.resolve(FILES).resolve(columns[2]))) {
+                throw new IOException("missing migrated file for " + columns[2] + " in " + directory);
+            }
+            changes.add(new Change(columns[2], columns[0], columns[1], directory.resolve(FILES).resolve(columns[2])));
+        }
+        return changes;
+    }
+}
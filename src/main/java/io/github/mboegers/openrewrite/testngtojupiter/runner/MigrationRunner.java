@@ -0,0 +1,585 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider;
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider.DataProviderIndex;
+import lombok.Builder;
+import lombok.Value;
+import org.openrewrite.*;
+import org.openrewrite.config.Environment;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.tree.ParseError;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Migrates a source tree without a build tool plugin, parsing and migrating batches of files on a worker pool.
+ * <p>
+ * Only {@code *.java} files are walked and parsed. Recipes migrating other files, like
+ * {@linkplain io.github.mboegers.openrewrite.testngtojupiter.MigrateSuiteParallelism} for {@code testng.xml}, have no
+ * effect and need a build tool plugin.
+ * <p>
+ * The tree is walked lazily and at most {@code queueCapacity} batches wait for a worker, when the queue is full the
+ * walking thread migrates the next batch itself. Each batch is released after its results are written, so the number
+ * of parsed files held at once depends on threads and batch size, not on the size of the tree. The summary reports
+ * that number as {@linkplain MigrationSummary#peakFilesInMemory()}, it counts source files and not bytes, the heap
+ * also holds the data provider index and its use grows with the size of the largest files.
+ * <p>
+ * Batches are parsed in isolation from the rest of the tree. The only cross file facts the recipes of this module
+ * need are the data providers, if the recipe includes {@linkplain MigrateDataProvider} they are indexed in a first
+ * streaming pass over the files mentioning {@code DataProvider} and seeded into every batch. If providers are listed
+ * for memoization, the tests naming a {@code dataProvider} are indexed as well. Other scanning recipes only see the sources
+ * of their batch.
+ * <p>
+ * Before parsing, files whose bytes do not contain the {@code preFilter} marker are skipped. All recipes of this
+ * module except {@code AddTestLifecyleToJUnitTests} only change files mentioning {@code org.testng}, data provider
+ * classes included because they import {@code @DataProvider}.
+ * <p>
+ * With a {@code cacheDirectory}, files whose content was migrated by the same recipe version before are not parsed
+ * again, the cached result is written instead. Entries are keyed by the content and the data providers the file
+ * names, so a changed provider only invalidates the files mentioning it.
+ * <p>
+ * A run can be split across machines: every node migrates one {@code shard} into an {@code output} directory and
+ * {@linkplain ShardMerge} applies all outputs. The data provider index is always built from the whole tree, so
+ * references between shards resolve.
+ * <p>
+ * With a {@code journal}, a crashed or killed run can be restarted with the same options. Files the journal records
+ * as finished and the data provider index are taken from it instead of parsing them again. Neither a dry run nor a
+ * diff changes the tree, so both reject a journal.
+ * <p>
+ * For review, a {@code diff} directory receives a unified diff per module instead of changing the tree. Diffs are
+ * streamed to disk as files are migrated, so the size of the patch does not affect heap use.
+ */
+@Value
+@Builder(toBuilder = true)
+public class MigrationRunner {
+
+    public static final String DEFAULT_RECIPE = "io.github.mboegers.openrewrite.TestNgToJUnitJupiter";
+
+    private static final String DATA_PROVIDER_MARKER = "DataProvider";
+    private static final String DATA_PROVIDER_ARGUMENT_MARKER = "dataProvider";
+
+    private static final String USAGE = """
+            usage: MigrationRunner <root> [--recipe=<name>] [--threads=<n>] [--batch-size=<n>] [--queue-capacity=<n>]
+                                       [--pre-filter=<marker>] [--no-pre-filter] [--cache=<dir>]
+                                       [--shard=<index>/<count>] [--output=<dir>] [--journal=<file>]
+                                       [--diff=<dir> [--gzip]] [--dry-run]""";
+
+    /**
+     * Root of the source tree, source paths of the results are relative to it
+     */
+    Path root;
+
+    /**
+     * Name of the recipe to run
+     */
+    @Builder.Default
+    String recipe = DEFAULT_RECIPE;
+
+    /**
+     * Number of workers parsing and migrating batches
+     */
+    @Builder.Default
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of files parsed and migrated together
+     */
+    @Builder.Default
+    int batchSize = 32;
+
+    /**
+     * Number of batches waiting for a worker
+     */
+    @Builder.Default
+    int queueCapacity = 64;
+
+    /**
+     * Classpath to resolve types against, must contain TestNG
+     */
+    @Builder.Default
+    List<Path> classpath = JavaParser.runtimeClasspath();
+
+    /**
+     * Files not containing this text are skipped without parsing, {@code null} parses all files
+     */
+    @Builder.Default
+    @Nullable
+    String preFilter = PreFilter.TESTNG;
+
+    /**
+     * Directory to cache results in, keyed by file content and recipe version, {@code null} disables the cache
+     */
+    @Nullable
+    Path cacheDirectory;
+
+    /**
+     * Migrate only the files of this shard, {@code null} migrates all files
+     */
+    @Nullable
+    Shard shard;
+
+    /**
+     * Directory to write a {@linkplain MigrationPatch patch} to instead of changing the tree, {@code null} changes
+     * the tree
+     */
+    @Nullable
+    Path output;
+
+    /**
+     * File recording finished work, so a restarted run resumes where the last one stopped, {@code null} disables
+     * resuming
+     */
+    @Nullable
+    Path journal;
+
+    /**
+     * Directory to write a unified diff per module to instead of changing the tree, {@code null} writes no diff
+     */
+    @Nullable
+    Path diff;
+
+    /**
+     * Whether to gzip the diffs
+     */
+    @Builder.Default
+    boolean gzip = false;
+
+    /**
+     * Whether to only count the changes instead of writing them back
+     */
+    @Builder.Default
+    boolean dryRun = false;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println(fromArguments(args).run());
+    }
+
+    /**
+     * Configure a runner from command line arguments
+     *
+     * @param args the root followed by options
+     * @return the configured runner
+     * @throws IllegalArgumentException if the arguments are malformed
+     */
+    static MigrationRunner fromArguments(String... args) {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        MigrationRunnerBuilder builder = MigrationRunner.builder().root(Path.of(args[0]));
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            switch (option[0]) {
+                case "--recipe" -> builder.recipe(value(option));
+                case "--threads" -> builder.threads(Integer.parseInt(value(option)));
+                case "--batch-size" -> builder.batchSize(Integer.parseInt(value(option)));
+                case "--queue-capacity" -> builder.queueCapacity(Integer.parseInt(value(option)));
+                case "--pre-filter" -> builder.preFilter(value(option));
+                case "--no-pre-filter" -> builder.preFilter(null);
+                case "--cache" -> builder.cacheDirectory(Path.of(value(option)));
+                case "--shard" -> builder.shard(Shard.parse(value(option)));
+                case "--output" -> builder.output(Path.of(value(option)));
+                case "--journal" -> builder.journal(Path.of(value(option)));
+                case "--diff" -> builder.diff(Path.of(value(option)));
+                case "--gzip" -> builder.gzip(true);
+                case "--dry-run" -> builder.dryRun(true);
+                default -> throw new IllegalArgumentException("unknown option " + args[i] + "\n" + USAGE);
+            }
+        }
+        return builder.build();
+    }
+
+    private static String value(String[] option) {
+        if (option.length < 2 || option[1].isEmpty()) {
+            throw new IllegalArgumentException("missing value for " + option[0] + "\n" + USAGE);
+        }
+        return option[1];
+    }
+
+    /**
+     * Migrate all Java files below the root
+     *
+     * @return counts of the run
+     * @throws IOException           if the tree cannot be walked
+     * @throws IllegalStateException if a diff or dry run is combined with a journal
+     */
+    public MigrationSummary run() throws IOException {
+        if (diff != null && journal != null) {
+            // a resumed run would miss the diffs of the files finished before
+            throw new IllegalStateException("a diff cannot be resumed from a journal");
+        }
+        if (dryRun && journal != null) {
+            // a later run with the journal would skip the files the dry run left unchanged
+            throw new IllegalStateException("a dry run cannot be journaled");
+        }
+
+        long start = System.nanoTime();
+        Recipe migration = Environment.builder()
+                .scanRuntimeClasspath("io.github.mboegers.openrewrite")
+                .build()
+                .activateRecipes(recipe);
+        Counters counters = new Counters();
+        ThreadLocal<JavaParser> parsers = ThreadLocal.withInitial(() -> JavaParser.fromJavaVersion()
+                .classpath(classpath)
+                .build());
+
+        try (MigrationJournal finished = journal == null ? null : new MigrationJournal(journal, root);
+             ResultSink sink = openSink()) {
+            // the only facts kept across batches
+            MigrateDataProvider dataProviderMigration = findDataProviderMigration(migration);
+            DataProviderIndex index = dataProviderMigration == null
+                    ? null
+                    : indexDataProviders(parsers, counters, finished, dataProviderMigration.memoizesProviders());
+
+            ThreadLocal<PreFilter> preFilters = ThreadLocal.withInitial(() -> preFilter == null ? null : new PreFilter(preFilter));
+            MigrationCache cache = cacheDirectory == null
+                    ? null
+                    : new MigrationCache(cacheDirectory, MigrationCache.fingerprint(recipe, classpath));
+            CrossFileFacts facts = cache == null || index == null ? null : new CrossFileFacts(index);
+            Migration run = new Migration(migration, cache, index, facts, sink, counters);
+            inBatches(batch -> {
+                List<Path> owned = shard == null
+                        ? batch
+                        : batch.stream().filter(file -> shard.owns(root.relativize(file))).toList();
+                counters.found.add(owned.size());
+                List<Path> matching = filter(owned, preFilters.get(), counters.skipped);
+                if (finished == null) {
+                    migrate(matching, parsers.get(), run);
+                    return;
+                }
+
+                List<Path> unfinished = finished.unfinished(matching, counters.resumed);
+                if (migrate(unfinished, parsers.get(), run)) {
+                    try {
+                        finished.finish(unfinished);
+                    } catch (IOException e) {
+                        // the batch is migrated again on resume
+                        counters.failures.add(unfinished.size());
+                    }
+                }
+            });
+        }
+
+        return counters.toSummary(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private ResultSink openSink() throws IOException {
+        if (diff != null) {
+            return new DiffSink(root, diff, gzip);
+        }
+        if (dryRun) {
+            return ResultSink.discard();
+        }
+        return output == null ? ResultSink.inPlace(root) : new MigrationPatch(output);
+    }
+
+    /**
+     * Walk the tree and hand batches of files to the workers. A batch never spans directories, so a batch holds
+     * files of one package, which are most likely to reference each other.
+     */
+    private void inBatches(Consumer<List<Path>> action) throws IOException {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try (Stream<Path> files = Files.walk(root)) {
+            Iterator<Path> javaFiles = files
+                    .filter(file -> file.toString().endsWith(".java"))
+                    .filter(Files::isRegularFile)
+                    .iterator();
+            List<Path> batch = new ArrayList<>(batchSize);
+            while (javaFiles.hasNext()) {
+                Path file = javaFiles.next();
+                boolean otherDirectory = !batch.isEmpty() && !batch.get(0).getParent().equals(file.getParent());
+                if (batch.size() == batchSize || otherDirectory) {
+                    List<Path> submitted = batch;
+                    workers.execute(() -> action.accept(submitted));
+                    batch = new ArrayList<>(batchSize);
+                }
+                batch.add(file);
+            }
+            if (!batch.isEmpty()) {
+                List<Path> submitted = batch;
+                workers.execute(() -> action.accept(submitted));
+            }
+        } finally {
+            workers.shutdown();
+            awaitTermination(workers);
+        }
+    }
+
+    private DataProviderIndex indexDataProviders(ThreadLocal<JavaParser> parsers, Counters counters,
+                                                 @Nullable MigrationJournal finished, boolean withConsumers) throws IOException {
+        DataProviderIndex journaled = finished == null ? null : finished.indexed();
+        if (journaled != null) {
+            return journaled;
+        }
+
+        // consumers name their provider in @Test(dataProvider = ...) without mentioning DataProvider
+        DataProviderIndex index = new DataProviderIndex();
+        ThreadLocal<PreFilter> providerFilters = ThreadLocal.withInitial(() -> withConsumers
+                ? new PreFilter(DATA_PROVIDER_MARKER, DATA_PROVIDER_ARGUMENT_MARKER)
+                : new PreFilter(DATA_PROVIDER_MARKER));
+        inBatches(batch -> index(filter(batch, providerFilters.get(), new LongAdder()), parsers.get(), index, counters));
+        if (finished != null) {
+            finished.indexed(index);
+        }
+        return index;
+    }
+
+    private static @Nullable MigrateDataProvider findDataProviderMigration(Recipe recipe) {
+        if (recipe instanceof MigrateDataProvider dataProviderMigration) {
+            return dataProviderMigration;
+        }
+        for (Recipe child : recipe.getRecipeList()) {
+            MigrateDataProvider dataProviderMigration = findDataProviderMigration(child);
+            if (dataProviderMigration != null) {
+                return dataProviderMigration;
+            }
+        }
+        return null;
+    }
+
+    private static List<Path> filter(List<Path> batch, @Nullable PreFilter preFilter, LongAdder skipped) {
+        if (preFilter == null) {
+            return batch;
+        }
+
+        List<Path> matching = new ArrayList<>(batch.size());
+        for (Path file : batch) {
+            try {
+                if (preFilter.matches(file)) {
+                    matching.add(file);
+                } else {
+                    skipped.increment();
+                }
+            } catch (IOException e) {
+                // let the parser report unreadable files
+                matching.add(file);
+            }
+        }
+        return matching;
+    }
+
+    private void index(List<Path> batch, JavaParser parser, DataProviderIndex index, Counters counters) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> counters.failures.increment());
+        List<SourceFile> sourceFiles = List.of();
+        try {
+            sourceFiles = parser.parse(batch, root, ctx).toList();
+            counters.hold(sourceFiles.size());
+            for (SourceFile sourceFile : sourceFiles) {
+                MigrateDataProvider.index(sourceFile, index, ctx);
+            }
+        } catch (RuntimeException e) {
+            counters.failures.add(batch.size());
+        } finally {
+            counters.release(sourceFiles.size());
+            parser.reset();
+        }
+    }
+
+    /**
+     * Migrate a batch and hand the changed files to the sink
+     *
+     * @return true if all files of the batch were migrated without failures
+     */
+    private boolean migrate(List<Path> batch, JavaParser parser, Migration run) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        Counters counters = run.counters();
+        AtomicBoolean failed = new AtomicBoolean();
+        Map<Path, String> hashes = new HashMap<>();
+        List<Path> uncached = run.cache() == null ? batch : lookup(batch, run, hashes, failed);
+        if (uncached.isEmpty()) {
+            return !failed.get();
+        }
+
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            failed.set(true);
+            counters.failures.increment();
+        });
+        if (run.index() != null) {
+            MigrateDataProvider.seedIndex(ctx, run.index());
+        }
+        List<SourceFile> sourceFiles = List.of();
+        try {
+            sourceFiles = parser.parse(uncached, root, ctx)
+                    .filter(sourceFile -> {
+                        if (sourceFile instanceof ParseError) {
+                            failed.set(true);
+                            counters.failures.increment();
+                            return false;
+                        }
+                        return true;
+                    })
+                    .toList();
+            counters.parsed.add(uncached.size());
+            counters.hold(sourceFiles.size());
+
+            Map<Path, byte[]> changed = new HashMap<>();
+            for (Result result : run.recipe().run(new InMemoryLargeSourceSet(sourceFiles), ctx).getChangeset().getAllResults()) {
+                if (result.getBefore() != null && result.getAfter() != null) {
+                    SourceFile after = result.getAfter();
+                    byte[] content = after.printAll()
+                            .getBytes(after.getCharset() == null ? StandardCharsets.UTF_8 : after.getCharset());
+                    changed.put(after.getSourcePath(), content);
+                    if (!write(run, after.getSourcePath(), null, content)) {
+                        failed.set(true);
+                    }
+                }
+            }
+
+            // results of failed recipe runs are not reproducible from the content alone
+            if (run.cache() != null && !failed.get()) {
+                record(sourceFiles, hashes, changed, run);
+            }
+            return !failed.get();
+        } catch (RuntimeException e) {
+            // a failing batch must not take down the worker or the rest of the run
+            counters.failures.add(uncached.size());
+            return false;
+        } finally {
+            counters.release(sourceFiles.size());
+            parser.reset();
+        }
+    }
+
+    private List<Path> lookup(List<Path> batch, Migration run, Map<Path, String> hashes, AtomicBoolean failed) {
+        List<Path> uncached = new ArrayList<>(batch.size());
+        for (Path file : batch) {
+            try {
+                byte[] content = Files.readAllBytes(file);
+                String hash = MigrationCache.hash(content, run.facts() == null ? "" : run.facts().of(content));
+                hashes.put(root.relativize(file), hash);
+                Optional<MigrationCache.Entry> entry = requireNonNull(run.cache()).lookup(hash);
+                if (entry.isEmpty()) {
+                    uncached.add(file);
+                    continue;
+                }
+
+                run.counters().cached.increment();
+                if (!entry.get().unchanged() && !write(run, root.relativize(file), content, requireNonNull(entry.get().after()))) {
+                    failed.set(true);
+                }
+            } catch (IOException e) {
+                // let the parser report unreadable files
+                uncached.add(file);
+            }
+        }
+        return uncached;
+    }
+
+    private static void record(List<SourceFile> sourceFiles, Map<Path, String> hashes, Map<Path, byte[]> changed,
+                               Migration run) {
+        MigrationCache cache = requireNonNull(run.cache());
+        for (SourceFile sourceFile : sourceFiles) {
+            String hash = hashes.get(sourceFile.getSourcePath());
+            if (hash == null) {
+                continue;
+            }
+            try {
+                byte[] after = changed.get(sourceFile.getSourcePath());
+                if (after == null) {
+                    cache.recordUnchanged(hash);
+                } else {
+                    cache.recordChanged(hash, after);
+                }
+            } catch (IOException e) {
+                run.counters().failures.increment();
+            }
+        }
+    }
+
+    /**
+     * Hand a changed file to the sink
+     *
+     * @param before content of the file, read from the tree if {@code null}
+     * @return false if the file could not be written
+     */
+    private boolean write(Migration run, Path sourcePath, @Nullable byte[] before, byte[] after) {
+        run.counters().changed.increment();
+        try {
+            run.sink().accept(sourcePath, before == null ? Files.readAllBytes(root.resolve(sourcePath)) : before, after);
+            return true;
+        } catch (IOException e) {
+            run.counters().failures.increment();
+            return false;
+        }
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor workers) throws InterruptedIOException {
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                // keep waiting, a batch of huge files can take a while
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("migration interrupted");
+        }
+    }
+
+    /**
+     * State shared by all batches of a run
+     */
+    private record Migration(Recipe recipe, @Nullable MigrationCache cache, @Nullable DataProviderIndex index,
+                             @Nullable CrossFileFacts facts, ResultSink sink, Counters counters) {
+    }
+
+    private static class Counters {
+        final LongAdder found = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final LongAdder resumed = new LongAdder();
+        final LongAdder cached = new LongAdder();
+        final LongAdder parsed = new LongAdder();
+        final LongAdder changed = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final AtomicLong inMemory = new AtomicLong();
+        final AtomicLong peakInMemory = new AtomicLong();
+
+        void hold(int sourceFiles) {
+            peakInMemory.accumulateAndGet(inMemory.addAndGet(sourceFiles), Math::max);
+        }
+
+        void release(int sourceFiles) {
+            inMemory.addAndGet(-sourceFiles);
+        }
+
+        MigrationSummary toSummary(Duration duration) {
+            return new MigrationSummary(found.sum(), skipped.sum(), resumed.sum(), cached.sum(), parsed.sum(),
+                    changed.sum(), failures.sum(), peakInMemory.get(), duration);
+        }
+    }
+}
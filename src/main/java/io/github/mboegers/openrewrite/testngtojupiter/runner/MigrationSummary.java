@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a {@linkplain MigrationRunner} run
+ *
+ * @param filesFound        Java files found below the root, only those of the shard if the run is sharded
+ * @param filesSkipped      files the pre-filter skipped without parsing
+ * @param filesResumed      files a previous run recorded as finished in the journal
+ * @param filesCached       files whose result was taken from the cache
+ * @param filesParsed       files handed to the Java parser
+ * @param filesChanged      files the recipe changed
+ * @param failures          files that could not be read, parsed or written
+ * @param peakFilesInMemory most parsed source files held at the same time, a count of files and not of bytes
+ * @param duration          wall clock time of the run
+ */
+public record MigrationSummary(long filesFound, long filesSkipped, long filesResumed, long filesCached,
+                               long filesParsed, long filesChanged, long failures, long peakFilesInMemory, Duration duration) {
+
+    @Override
+    public String toString() {
+        return ("%d files found, %d skipped, %d resumed, %d cached, %d parsed, %d changed, %d failed in %s, "
+                + "at most %d files in memory").formatted(filesFound, filesSkipped, filesResumed, filesCached, filesParsed,
+                        filesChanged, failures, duration, peakFilesInMemory);
+    }
+}
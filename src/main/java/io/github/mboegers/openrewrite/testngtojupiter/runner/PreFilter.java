@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Searches the raw bytes of a file for a marker like {@code org.testng}, so files that cannot be changed by the
+ * recipes are never decoded or parsed.
+ * <p>
+ * Small files are read into a reused buffer, larger ones are memory mapped. The marker is matched byte by byte,
+ * which works for all ASCII compatible encodings like UTF-8 or ISO-8859-1. Instances are not thread safe.
+ */
+final class PreFilter {
+
+    static final String TESTNG = "org.testng";
+
+    private static final int MAP_THRESHOLD = 64 * 1024;
+
+    private final byte[][] markers;
+    private final ByteBuffer buffer = ByteBuffer.allocate(MAP_THRESHOLD);
+
+    PreFilter(String... markers) {
+        this.markers = new byte[markers.length][];
+        for (int i = 0; i < markers.length; i++) {
+            this.markers[i] = markers[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Check if the file contains any of the markers
+     *
+     * @param file to search
+     * @return true if a marker is found
+     * @throws IOException if the file cannot be read
+     */
+    boolean matches(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAP_THRESHOLD) {
+                return contains(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+
+            buffer.clear();
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the file or the buffer ends
+            }
+            buffer.flip();
+            return contains(buffer);
+        }
+    }
+
+    private boolean contains(ByteBuffer bytes) {
+        for (byte[] marker : markers) {
+            if (contains(bytes, marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(ByteBuffer bytes, byte[] marker) {
+        int last = bytes.limit() - marker.length;
+        search:
+        for (int i = bytes.position(); i <= last; i++) {
+            if (bytes.get(i) != marker[0]) {
+                continue;
+            }
+            for (int j = 1; j < marker.length; j++) {
+                if (bytes.get(i + j) != marker[j]) {
+                    continue search;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
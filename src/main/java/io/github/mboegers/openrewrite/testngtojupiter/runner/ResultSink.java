@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Receives the content of every changed file as soon as a batch produced it. Implementations are called by
+ * several workers at once.
+ */
+interface ResultSink extends Closeable {
+
+    /**
+     * Take the result for one file
+     *
+     * @param sourcePath relative to the root of the tree
+     * @param before     content the recipe ran on
+     * @param after      content produced by the recipe
+     * @throws IOException if the result cannot be stored
+     */
+    void accept(Path sourcePath, byte[] before, byte[] after) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Overwrite the files in the tree, each file is replaced atomically so a killed run leaves no partial files
+     */
+    static ResultSink inPlace(Path root) {
+        return (sourcePath, before, after) -> {
+            Path file = root.resolve(sourcePath);
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, after);
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        };
+    }
+
+    /**
+     * Drop all results
+     */
+    static ResultSink discard() {
+        return (sourcePath, before, after) -> {
+        };
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * One of {@code count} partitions of a source tree. Files are assigned by a hash of their path relative to the
+ * root, so every node computes the same partition without coordination.
+ *
+ * @param index of this shard, starting at 0
+ * @param count of shards
+ */
+public record Shard(int index, int count) {
+
+    public Shard {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("shard " + index + " of " + count + " does not exist");
+        }
+    }
+
+    /**
+     * Parse a shard written as {@code index/count}
+     *
+     * @param shard to parse, e.g. {@code 0/4}
+     * @return the shard
+     * @throws IllegalArgumentException if the shard is malformed
+     */
+    public static Shard parse(String shard) {
+        String[] parts = shard.split("/", 2);
+        try {
+            return new Shard(Integer.parseInt(parts[0]), Integer.parseInt(parts[parts.length - 1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("shard must be <index>/<count> but was " + shard, e);
+        }
+    }
+
+    /**
+     * Check if a file belongs to this shard
+     *
+     * @param sourcePath relative to the root of the tree
+     * @return true if this shard migrates the file
+     */
+    public boolean owns(Path sourcePath) {
+        CRC32 crc = new CRC32();
+        crc.update(normalize(sourcePath).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue() % count == index;
+    }
+
+    /**
+     * The path with {@code /} separators, independent of the platform
+     */
+    static String normalize(Path sourcePath) {
+        StringBuilder normalized = new StringBuilder();
+        for (Path name : sourcePath) {
+            if (!normalized.isEmpty()) {
+                normalized.append('/');
+            }
+            normalized.append(name);
+        }
+        return normalized.toString();
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Combines the patches of all shards of a migration and applies them to the tree.
+ * <p>
+ * Nothing is applied if two patches change the same file differently or if a file changed since its shard was
+ * migrated.
+ *
+ * @see MigrationRunner#getShard()
+ */
+public final class ShardMerge {
+
+    private static final String USAGE = "usage: ShardMerge <root> <patch directory>...";
+
+    private ShardMerge() {
+    }
+
+    /**
+     * Outcome of a merge
+     *
+     * @param filesChanged files written to the tree
+     * @param conflicts    descriptions of all conflicts, empty if the patches were applied
+     */
+    public record MergeResult(int filesChanged, List<String> conflicts) {
+
+        public boolean applied() {
+            return conflicts.isEmpty();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(USAGE);
+        }
+
+        MergeResult result = merge(Path.of(args[0]), Arrays.stream(args).skip(1).map(Path::of).toList());
+        if (!result.applied()) {
+            result.conflicts().forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println(result.filesChanged() + " files changed");
+    }
+
+    /**
+     * Check the patches for conflicts and apply them if there are none
+     *
+     * @param root    of the tree the shards were migrated from
+     * @param patches output directories of the shards
+     * @return the files changed or the conflicts found
+     * @throws IOException if a patch or the tree cannot be read or written
+     */
+    public static MergeResult merge(Path root, List<Path> patches) throws IOException {
+        Map<String, MigrationPatch.Change> changes = new LinkedHashMap<>();
+        List<String> conflicts = new ArrayList<>();
+
+        for (Path patch : patches) {
+            for (MigrationPatch.Change change : MigrationPatch.read(patch)) {
+                MigrationPatch.Change other = changes.putIfAbsent(change.sourcePath(), change);
+                if (other != null && !other.afterHash().equals(change.afterHash())) {
+                    conflicts.add("%s is changed differently by %s and %s".formatted(change.sourcePath(), other.after(), change.after()));
+                }
+            }
+        }
+        for (MigrationPatch.Change change : changes.values()) {
+            Path file = root.resolve(change.sourcePath());
+            if (!Files.isRegularFile(file) || !MigrationCache.hash(Files.readAllBytes(file)).equals(change.beforeHash())) {
+                conflicts.add("%s changed since it was migrated".formatted(change.sourcePath()));
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            return new MergeResult(0, conflicts);
+        }
+
+        for (MigrationPatch.Change change : changes.values()) {
+            Files.copy(change.after(), root.resolve(change.sourcePath()), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new MergeResult(changes.size(), List.of());
+    }
+}
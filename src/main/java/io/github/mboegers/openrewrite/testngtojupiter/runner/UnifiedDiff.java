@@ -0,0 +1,227 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Line based unified diff of one file, as {@code git diff} prints it with three lines of context.
+ * <p>
+ * Content is decoded as ISO-8859-1, so every byte maps to one char and the diff reproduces the original bytes
+ * whatever the encoding of the file. Lines keep their terminators, a missing newline at the end of the file is
+ * marked the way {@code git apply} expects. The edit script is computed with Myers' algorithm on the lines between
+ * the common prefix and suffix. Files differing in more than {@value #MAX_EDITS} lines are diffed as one hunk
+ * replacing everything in between, to bound memory.
+ */
+final class UnifiedDiff {
+
+    private static final int CONTEXT = 3;
+    private static final int MAX_EDITS = 2000;
+
+    private static final char EQUAL = ' ';
+    private static final char DELETE = '-';
+    private static final char INSERT = '+';
+
+    private UnifiedDiff() {
+    }
+
+    /**
+     * An edit script entry, positions are the lines of both files before this entry
+     */
+    private record Op(char type, int before, int after) {
+    }
+
+    /**
+     * Diff two versions of a file
+     *
+     * @param path   of the file, printed with {@code a/} and {@code b/} prefixes
+     * @param before content of the file
+     * @param after  new content of the file
+     * @return the diff or an empty array if the contents are equal
+     */
+    static byte[] diff(String path, byte[] before, byte[] after) {
+        List<String> a = lines(before);
+        List<String> b = lines(after);
+        List<Op> ops = editScript(a, b);
+        if (ops.stream().allMatch(op -> op.type() == EQUAL)) {
+            return new byte[0];
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, "diff --git a/%s b/%s\n--- a/%s\n+++ b/%s\n".formatted(path, path, path, path), StandardCharsets.UTF_8);
+        int i = 0;
+        while (i < ops.size()) {
+            while (i < ops.size() && ops.get(i).type() == EQUAL) {
+                i++;
+            }
+            if (i == ops.size()) {
+                break;
+            }
+
+            // extend the hunk over changes separated by at most twice the context
+            int end = i;
+            int j = i;
+            while (j < ops.size()) {
+                if (ops.get(j).type() != EQUAL) {
+                    end = ++j;
+                    continue;
+                }
+                int equalEnd = j;
+                while (equalEnd < ops.size() && ops.get(equalEnd).type() == EQUAL) {
+                    equalEnd++;
+                }
+                if (equalEnd == ops.size() || equalEnd - j > 2 * CONTEXT) {
+                    break;
+                }
+                j = equalEnd;
+            }
+
+            int start = Math.max(0, i - CONTEXT);
+            i = Math.min(ops.size(), end + CONTEXT);
+            writeHunk(out, ops.subList(start, i), a, b);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeHunk(ByteArrayOutputStream out, List<Op> hunk, List<String> a, List<String> b) {
+        int beforeLines = (int) hunk.stream().filter(op -> op.type() != INSERT).count();
+        int afterLines = (int) hunk.stream().filter(op -> op.type() != DELETE).count();
+        // an empty range starts at the line before it
+        int beforeStart = hunk.get(0).before() + (beforeLines == 0 ? 0 : 1);
+        int afterStart = hunk.get(0).after() + (afterLines == 0 ? 0 : 1);
+        write(out, "@@ -%d,%d +%d,%d @@\n".formatted(beforeStart, beforeLines, afterStart, afterLines), StandardCharsets.US_ASCII);
+
+        for (Op op : hunk) {
+            String line = op.type() == INSERT ? b.get(op.after()) : a.get(op.before());
+            out.write(op.type());
+            write(out, line, StandardCharsets.ISO_8859_1);
+            if (!line.endsWith("\n")) {
+                write(out, "\n\\ No newline at end of file\n", StandardCharsets.US_ASCII);
+            }
+        }
+    }
+
+    private static List<Op> editScript(List<String> a, List<String> b) {
+        int prefix = 0;
+        while (prefix < a.size() && prefix < b.size() && a.get(prefix).equals(b.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < a.size() - prefix && suffix < b.size() - prefix
+               && a.get(a.size() - 1 - suffix).equals(b.get(b.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        List<Op> ops = new ArrayList<>(a.size() + b.size());
+        for (int i = 0; i < prefix; i++) {
+            ops.add(new Op(EQUAL, i, i));
+        }
+        List<Op> middle = myers(a.subList(prefix, a.size() - suffix), b.subList(prefix, b.size() - suffix));
+        for (Op op : middle) {
+            ops.add(new Op(op.type(), op.before() + prefix, op.after() + prefix));
+        }
+        for (int i = suffix; i > 0; i--) {
+            ops.add(new Op(EQUAL, a.size() - i, b.size() - i));
+        }
+        return ops;
+    }
+
+    /**
+     * Shortest edit script, keeping the furthest reaching paths of every step to backtrack through them
+     */
+    private static List<Op> myers(List<String> a, List<String> b) {
+        int n = a.size();
+        int m = b.size();
+        int max = Math.min(n + m, MAX_EDITS);
+        // furthest x on diagonal k is v[k + offset], trace[d] keeps diagonals -d - 1 to d + 1 before step d
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= max; d++) {
+            trace.add(Arrays.copyOfRange(v, offset - d - 1, offset + d + 2));
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, n, m);
+                }
+            }
+        }
+
+        List<Op> replace = new ArrayList<>(n + m);
+        for (int i = 0; i < n; i++) {
+            replace.add(new Op(DELETE, i, 0));
+        }
+        for (int j = 0; j < m; j++) {
+            replace.add(new Op(INSERT, n, j));
+        }
+        return replace;
+    }
+
+    private static List<Op> backtrack(List<int[]> trace, int n, int m) {
+        List<Op> ops = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d >= 0; d--) {
+            int[] v = trace.get(d);
+            int k = x - y;
+            int previousK = k == -d || (k != d && v[k - 1 + d + 1] < v[k + 1 + d + 1]) ? k + 1 : k - 1;
+            int previousX = d == 0 ? 0 : v[previousK + d + 1];
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                x--;
+                y--;
+                ops.add(new Op(EQUAL, x, y));
+            }
+            if (d > 0) {
+                if (x == previousX) {
+                    ops.add(new Op(INSERT, previousX, previousY));
+                } else {
+                    ops.add(new Op(DELETE, previousX, previousY));
+                }
+            }
+            x = previousX;
+            y = previousY;
+        }
+        Collections.reverse(ops);
+        return ops;
+    }
+
+    private static List<String> lines(byte[] content) {
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int newline = text.indexOf('\n'); newline >= 0; newline = text.indexOf('\n', start)) {
+            lines.add(text.substring(start, newline + 1));
+            start = newline + 1;
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+
+    private static void write(ByteArrayOutputStream out, String text, Charset charset) {
+        out.writeBytes(text.getBytes(charset));
+    }
+}
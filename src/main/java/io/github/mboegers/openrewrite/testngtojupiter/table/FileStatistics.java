@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.table;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+
+/**
+ * Counts the work a visitor does on one source file, starting the clock on creation
+ *
+ * @see MigrationStatistics
+ */
+public final class FileStatistics {
+
+    private final long start = System.nanoTime();
+    private int annotationsRewritten;
+    private int templatesApplied;
+
+    public void annotationRewritten() {
+        annotationsRewritten++;
+    }
+
+    public void templateApplied() {
+        templatesApplied++;
+    }
+
+    /**
+     * Stop the clock and add the counts as a row
+     *
+     * @param table      to insert into
+     * @param ctx        of the recipe run
+     * @param sourceFile the counts belong to
+     * @param recipe     name of the recipe that did the work
+     */
+    public void insertRow(MigrationStatistics table, ExecutionContext ctx, SourceFile sourceFile, String recipe) {
+        table.insertRow(ctx, new MigrationStatistics.Row(
+                sourceFile.getSourcePath().toString(),
+                recipe,
+                System.nanoTime() - start,
+                annotationsRewritten,
+                templatesApplied));
+    }
+}
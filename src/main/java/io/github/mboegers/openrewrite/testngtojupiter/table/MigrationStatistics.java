@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+/**
+ * One row per source file and recipe, used to find files that are expensive to migrate
+ */
+@JsonIgnoreType
+public class MigrationStatistics extends DataTable<MigrationStatistics.Row> {
+
+    public MigrationStatistics(Recipe recipe) {
+        super(recipe,
+                "TestNG migration statistics",
+                "Visit time and number of rewritten elements per source file and recipe.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The source file that was visited.")
+        String sourcePath;
+
+        @Column(displayName = "Recipe",
+                description = "The recipe that visited the source file.")
+        String recipe;
+
+        @Column(displayName = "Visit time (ns)",
+                description = "Time spent visiting the source file in nanoseconds.")
+        long visitTimeNanos;
+
+        @Column(displayName = "Annotations rewritten",
+                description = "Number of annotations added, removed or changed.")
+        int annotationsRewritten;
+
+        @Column(displayName = "Templates applied",
+                description = "Number of JavaTemplate applications.")
+        int templatesApplied;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.table;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+
+/**
+ * TestNG constructs a recipe skipped because it has no migration for them
+ */
+@JsonIgnoreType
+public class UnsupportedTestNgConstructs extends DataTable<UnsupportedTestNgConstructs.Row> {
+
+    public UnsupportedTestNgConstructs(Recipe recipe) {
+        super(recipe,
+                "Unsupported TestNG constructs",
+                "TestNG constructs that were left untouched or only partially migrated.");
+    }
+
+    /**
+     * Add a construct found on a method
+     *
+     * @param ctx        of the recipe run
+     * @param sourceFile containing the method
+     * @param recipe     name of the recipe that skipped the construct
+     * @param method     carrying the construct
+     * @param construct  that was skipped
+     * @param reason     why it was skipped
+     */
+    public void insertRow(ExecutionContext ctx, SourceFile sourceFile, String recipe,
+                          J.MethodDeclaration method, String construct, String reason) {
+        String element = method.getMethodType() == null
+                ? method.getSimpleName()
+                : method.getMethodType().getDeclaringType().getFullyQualifiedName() + "#" + method.getSimpleName();
+        insertRow(ctx, new Row(sourceFile.getSourcePath().toString(), recipe, element, construct, reason));
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source path",
+                description = "The source file containing the construct.")
+        String sourcePath;
+
+        @Column(displayName = "Recipe",
+                description = "The recipe that skipped the construct.")
+        String recipe;
+
+        @Column(displayName = "Element",
+                description = "Name of the method or class carrying the construct.")
+        String element;
+
+        @Column(displayName = "Construct",
+                description = "The construct, e.g. an annotation argument.")
+        String construct;
+
+        @Column(displayName = "Reason",
+                description = "Why the construct was not migrated.")
+        String reason;
+    }
+}
@@ -10,12 +10,15 @@
 
 package io.github.mboegers.openrewrite.testngtojupiter;
 
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
 import org.junit.jupiter.api.Test;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import static io.github.mboegers.openrewrite.testngtojupiter.StatisticsRows.onlyRow;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
 
 class AddTestLifecycleToJUnitTestsTest implements RewriteTest {
@@ -111,4 +114,64 @@ class AddTestLifecycleToJUnitTestsTest implements RewriteTest {
             }
             """));
     }
+
+    @Test
+    void skipSourcesWithoutJUnitTests() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(MigrationStatistics.Row.class, rows -> {
+              assertThat(rows)
+                .extracting(MigrationStatistics.Row::getSourcePath)
+                .containsExactly("MyTest.java");
+          }),
+          java(
+            """
+              class Fixtures {
+                  static final String NAME = "fixture";
+              }
+              """),
+          java(
+            """
+              import org.junit.jupiter.api.Test;
+
+              class MyTest {
+                  @Test
+                  void test() {}
+              }
+              """, """
+              import org.junit.jupiter.api.Test;
+              import org.junit.jupiter.api.TestInstance;
+
+              @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+              class MyTest {
+                  @Test
+                  void test() {}
+              }
+              """));
+    }
+
+    @Test
+    void reportMigrationStatistics() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(MigrationStatistics.Row.class, onlyRow("MyTest.java", 1, 0)),
+          java(
+            """
+              import org.junit.jupiter.api.Test;
+
+              class MyTest {
+                  @Test
+                  void test() {}
+              }
+              """, """
+              import org.junit.jupiter.api.Test;
+              import org.junit.jupiter.api.TestInstance;
+
+              @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+              class MyTest {
+                  @Test
+                  void test() {}
+              }
+              """));
+    }
 }
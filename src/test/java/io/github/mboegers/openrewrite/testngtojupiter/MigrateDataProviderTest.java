@@ -10,13 +10,22 @@
 
 package io.github.mboegers.openrewrite.testngtojupiter;
 
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
 import org.intellij.lang.annotations.Language;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import java.util.List;
+
+import static io.github.mboegers.openrewrite.testngtojupiter.StatisticsRows.onlyRow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.openrewrite.java.Assertions.java;
 
 class MigrateDataProviderTest implements RewriteTest {
@@ -30,6 +39,67 @@ class MigrateDataProviderTest implements RewriteTest {
     }
 
 
+    @Test
+    void skipSourcesWithoutTestNG() {
+        rewriteRun(
+          spec -> spec.afterRecipe(run -> assertThat(run.<MigrationStatistics.Row>getDataTableRows(MigrationStatistics.class.getName()))
+            .isEmpty()),
+          java(
+            """
+              package de.boeg.tst.provider;
+                            
+              public class BoxPrimitiveDataProvider {
+                  public static Object[][] boxPrimitiveDataProvider() { /*...*/ }
+              }
+              """
+          ));
+    }
+
+    @Test
+    void reportMigrationStatistics() {
+        rewriteRun(
+          spec -> spec.dataTable(MigrationStatistics.Row.class, onlyRow("de/boeg/tst/real/ProviderTest.java", 4, 1)),
+          java(
+            """
+              package de.boeg.tst.real;
+
+              import org.testng.annotations.DataProvider;
+              import org.testng.annotations.Test;
+
+              public class ProviderTest {
+                  @DataProvider(name = "rows")
+                  public static Object[][] data() { /*...*/ }
+
+                  @Test(dataProvider = "rows")
+                  public void test(Object row) {/*...*/}
+              }
+              """, """
+              package de.boeg.tst.real;
+
+              import org.junit.jupiter.params.ParameterizedTest;
+              import org.junit.jupiter.params.provider.Arguments;
+              import org.junit.jupiter.params.provider.MethodSource;
+              import org.testng.annotations.Test;
+
+              import java.util.Arrays;
+              import java.util.stream.Stream;
+
+              public class ProviderTest {
+                  public static Object[][] data() { /*...*/ }
+
+                  @Test
+                  @ParameterizedTest
+                  @MethodSource("de.boeg.tst.real.ProviderTest#rows")
+                  public void test(Object row) {/*...*/}
+
+                  public static Stream<Arguments> rows() {
+                      return Arrays.stream(data()).map(Arguments::of);
+                  }
+              }
+              """
+          ));
+    }
+
     @Nested
     class WrapDataProvider {
         @Test
@@ -92,6 +162,141 @@ class MigrateDataProviderTest implements RewriteTest {
             rewriteRun(java(is, should));
         }
 
+        @Test
+        void streamLazilyFromIteratorIterableAndStream() {
+            @Language("java") String is = """
+              package de.boeg.tst.provider;
+
+              import org.testng.annotations.DataProvider;
+
+              import java.util.Iterator;
+              import java.util.List;
+              import java.util.stream.Stream;
+
+              public class FixtureDataProvider {
+                  @DataProvider(name = "iterator")
+                  public static Iterator<Object[]> readRows() { /*...*/ }
+
+                  @DataProvider(name = "iterable")
+                  public static List<Object[]> listRows() { /*...*/ }
+
+                  @DataProvider(name = "stream")
+                  public static Stream<Object[]> streamRows() { /*...*/ }
+
+                  @DataProvider(name = "array")
+                  public static Object[][] arrayRows() { /*...*/ }
+              }
+              """;
+
+            @Language("java") String should = """
+              package de.boeg.tst.provider;
+
+              import org.junit.jupiter.params.provider.Arguments;
+
+              import java.util.*;
+              import java.util.stream.Stream;
+              import java.util.stream.StreamSupport;
+
+              public class FixtureDataProvider {
+                  public static Iterator<Object[]> readRows() { /*...*/ }
+
+                  public static List<Object[]> listRows() { /*...*/ }
+
+                  public static Stream<Object[]> streamRows() { /*...*/ }
+
+                  public static Object[][] arrayRows() { /*...*/ }
+
+                  public static Stream<Arguments> iterator() {
+                      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(readRows(), Spliterator.ORDERED), false).map(Arguments::of);
+                  }
+
+                  public static Stream<Arguments> iterable() {
+                      return StreamSupport.stream(listRows().spliterator(), false).map(Arguments::of);
+                  }
+
+                  public static Stream<Arguments> stream() {
+                      return streamRows().map(Arguments::of);
+                  }
+
+                  public static Stream<Arguments> array() {
+                      return Arrays.stream(arrayRows()).map(Arguments::of);
+                  }
+              }
+              """;
+
+            // only Object[][] is materialized before the first test runs, five java.util types fold into a star import
+            rewriteRun(java(is, should));
+        }
+
+        @Test
+        void importOnlyTypesOfUsedWrappers() {
+            rewriteRun(
+              java(
+                """
+                  package de.boeg.tst.provider;
+
+                  import org.testng.annotations.DataProvider;
+
+                  import java.util.stream.Stream;
+
+                  public class FixtureDataProvider {
+                      @DataProvider(name = "stream")
+                      public static Stream<Object[]> streamRows() { /*...*/ }
+                  }
+                  """,
+                """
+                  package de.boeg.tst.provider;
+
+                  import org.junit.jupiter.params.provider.Arguments;
+
+                  import java.util.stream.Stream;
+
+                  public class FixtureDataProvider {
+                      public static Stream<Object[]> streamRows() { /*...*/ }
+
+                      public static Stream<Arguments> stream() {
+                          return streamRows().map(Arguments::of);
+                      }
+                  }
+                  """));
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {1, 10, 80})
+        void wrapAllProvidersOfAClassWithOneTemplateParse(int providers) {
+            StringBuilder is = new StringBuilder("""
+              package de.boeg.tst.provider;
+
+              import org.testng.annotations.DataProvider;
+
+              public class ManyProviders {
+              """);
+            for (int i = 0; i < providers; i++) {
+                is.append("""
+                      @DataProvider(name = "provider%1$d")
+                      public static Object[][] data%1$d() { /*...*/ }
+                  """.formatted(i));
+            }
+            is.append("}\n");
+
+            // the recipe counts a template application each time the wrapper template parses its stub of the class
+            rewriteRun(
+              spec -> spec.dataTable(MigrationStatistics.Row.class, rows -> {
+                  assertThat(rows).hasSize(1);
+                  assertThat(rows.get(0).getTemplatesApplied()).isEqualTo(1);
+              }),
+              java(is.toString(), spec -> spec.after(actual -> {
+                  for (int i = 0; i < providers; i++) {
+                      assertThat(actual).contains("""
+                            public static Stream<Arguments> provider%1$d() {
+                                return Arrays.stream(data%1$d()).map(Arguments::of);
+                            }
+                        """.formatted(i));
+                  }
+                  return actual;
+              })));
+        }
+
     }
 
     @Nested
@@ -154,6 +359,64 @@ class MigrateDataProviderTest implements RewriteTest {
               ));
         }
 
+        @Test
+        void fullMigrateNamedProvider() {
+            rewriteRun(
+              java(
+                """
+                  package de.boeg.tst.provider;
+                  import org.testng.annotations.DataProvider;
+                            
+                  public class BoxPrimitiveDataProvider {                   
+                      @DataProvider(name = "boxes")
+                      public static Object[][] boxPrimitiveDataProvider() { /*...*/ }
+                  }
+                  """,
+                """
+                  package de.boeg.tst.provider;
+                  import org.junit.jupiter.params.provider.Arguments;
+                                    
+                  import java.util.Arrays;
+                  import java.util.stream.Stream;
+                              
+                  public class BoxPrimitiveDataProvider {
+                      public static Object[][] boxPrimitiveDataProvider() { /*...*/ }
+                              
+                      public static Stream<Arguments> boxes() {
+                          return Arrays.stream(boxPrimitiveDataProvider()).map(Arguments::of);
+                      }
+                  }
+                  """
+              ),
+              java(
+                """
+                  package de.boeg.tst.real;
+                  import org.testng.annotations.Test;
+                                    
+                  import de.boeg.tst.provider.BoxPrimitiveDataProvider;
+                                  
+                  public class HotSpotConstantReflectionProviderTest {
+                      @Test(dataProvider = "boxes", dataProviderClass = BoxPrimitiveDataProvider.class)
+                      public void testUnboxPrimitive(Object constant, Object expected) {/*...*/}
+                  }
+                  """, """
+                  package de.boeg.tst.real;
+                  import org.junit.jupiter.params.ParameterizedTest;
+                  import org.junit.jupiter.params.provider.MethodSource;
+                  import org.testng.annotations.Test;
+                                    
+                  import de.boeg.tst.provider.BoxPrimitiveDataProvider;
+                                    
+                  public class HotSpotConstantReflectionProviderTest {
+                      @Test
+                      @ParameterizedTest
+                      @MethodSource("de.boeg.tst.provider.BoxPrimitiveDataProvider#boxes")
+                      public void testUnboxPrimitive(Object constant, Object expected) {/*...*/}
+                  }
+                  """
+              ));
+        }
+
         @Test
         void WrapOnlyDataprovider() {
             rewriteRun(
@@ -395,4 +658,335 @@ class MigrateDataProviderTest implements RewriteTest {
               ));
         }
     }
+
+    @Nested
+    class ParallelDataProvider {
+
+        //language=java
+        private static final String PARALLEL_PROVIDER = """
+          package de.boeg.tst.real;
+          import org.testng.annotations.DataProvider;
+          import org.testng.annotations.Test;
+
+          import java.util.List;
+
+          public class ParallelProviderTest {
+          %s
+              @DataProvider(name = "rows", parallel = true)
+              public static Object[][] data() { /*...*/ }
+
+              @Test(dataProvider = "rows")
+              public void test(Object row) {/*...*/}
+          }
+          """;
+
+        //language=java
+        private static final String CONCURRENT_TEST = """
+          package de.boeg.tst.real;
+          import org.junit.jupiter.api.parallel.Execution;
+          import org.junit.jupiter.api.parallel.ExecutionMode;
+          import org.junit.jupiter.params.ParameterizedTest;
+          import org.junit.jupiter.params.provider.Arguments;
+          import org.junit.jupiter.params.provider.MethodSource;
+          import org.testng.annotations.Test;
+
+          import java.util.Arrays;
+          import java.util.List;
+          import java.util.stream.Stream;
+
+          public class ParallelProviderTest {
+          %s
+              public static Object[][] data() { /*...*/ }
+
+              @Test
+              @ParameterizedTest
+              @MethodSource("de.boeg.tst.real.ParallelProviderTest#rows")
+              @Execution(ExecutionMode.CONCURRENT)
+              public void test(Object row) {/*...*/}
+
+              public static Stream<Arguments> rows() {
+                  return Arrays.stream(data()).map(Arguments::of);
+              }
+          }
+          """;
+
+        //language=java
+        private static final String SEQUENTIAL_TEST = """
+          package de.boeg.tst.real;
+          import org.junit.jupiter.params.ParameterizedTest;
+          import org.junit.jupiter.params.provider.Arguments;
+          import org.junit.jupiter.params.provider.MethodSource;
+          import org.testng.annotations.Test;
+
+          import java.util.Arrays;
+          import java.util.List;
+          import java.util.stream.Stream;
+
+          public class ParallelProviderTest {
+          %s
+              public static Object[][] data() { /*...*/ }
+
+              @Test
+              @ParameterizedTest
+              @MethodSource("de.boeg.tst.real.ParallelProviderTest#rows")
+              public void test(Object row) {/*...*/}
+
+              public static Stream<Arguments> rows() {
+                  return Arrays.stream(data()).map(Arguments::of);
+              }
+          }
+          """;
+
+        @Test
+        void runInvocationsConcurrently() {
+            rewriteRun(
+              java(PARALLEL_PROVIDER.formatted(""), CONCURRENT_TEST.formatted("")));
+        }
+
+        @Test
+        void runConcurrentlyWithConstants() {
+            String fields = """
+                  private static final int LIMIT = 3;
+                  private final String name = "rows";
+              """;
+            rewriteRun(
+              spec -> spec.afterRecipe(run -> assertThat(run.getDataTables().keySet())
+                .noneMatch(UnsupportedTestNgConstructs.class::isInstance)),
+              java(PARALLEL_PROVIDER.formatted(fields), CONCURRENT_TEST.formatted(fields)));
+        }
+
+        @Test
+        void runSequentiallyWithStaticField() {
+            String fields = "    private static int invocations;";
+            rewriteRun(
+              spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+                  assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getConstruct, UnsupportedTestNgConstructs.Row::getReason)
+                    .containsExactly(tuple("@DataProvider(parallel)", "Test class has mutable shared fields, invocations run sequentially"));
+              }),
+              java(PARALLEL_PROVIDER.formatted(fields), SEQUENTIAL_TEST.formatted(fields)));
+        }
+
+        @Test
+        void runSequentiallyWithStaticFinalCollection() {
+            String fields = "    private static final List<Object> SEEN = new java.util.ArrayList<>();";
+            rewriteRun(
+              spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+                  assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getConstruct, UnsupportedTestNgConstructs.Row::getReason)
+                    .containsExactly(tuple("@DataProvider(parallel)", "Test class has mutable shared fields, invocations run sequentially"));
+              }),
+              java(PARALLEL_PROVIDER.formatted(fields), SEQUENTIAL_TEST.formatted(fields)));
+        }
+
+        @Test
+        void runSequentiallyWithStaticFinalArray() {
+            String fields = "    private static final int[] COUNTS = new int[4];";
+            rewriteRun(
+              spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+                  assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getConstruct, UnsupportedTestNgConstructs.Row::getReason)
+                    .containsExactly(tuple("@DataProvider(parallel)", "Test class has mutable shared fields, invocations run sequentially"));
+              }),
+              java(PARALLEL_PROVIDER.formatted(fields), SEQUENTIAL_TEST.formatted(fields)));
+        }
+
+        @Test
+        void runSequentiallyWithInstanceField() {
+            String fields = "    private int invocations;";
+            rewriteRun(
+              spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+                  assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getConstruct, UnsupportedTestNgConstructs.Row::getReason)
+                    .containsExactly(tuple("@DataProvider(parallel)", "Test class has mutable shared fields, invocations run sequentially"));
+              }),
+              java(PARALLEL_PROVIDER.formatted(fields), SEQUENTIAL_TEST.formatted(fields)));
+        }
+
+        @Test
+        void runSequentiallyWithInstanceFinalCollection() {
+            String fields = "    private final List<Object> seen = new java.util.ArrayList<>();";
+            rewriteRun(
+              spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+                  assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getConstruct, UnsupportedTestNgConstructs.Row::getReason)
+                    .containsExactly(tuple("@DataProvider(parallel)", "Test class has mutable shared fields, invocations run sequentially"));
+              }),
+              java(PARALLEL_PROVIDER.formatted(fields), SEQUENTIAL_TEST.formatted(fields)));
+        }
+
+        @Test
+        void runConcurrentlyWithSharedStateIfConfigured() {
+            String fields = "    private static int invocations;";
+            rewriteRun(
+              spec -> spec.recipe(new MigrateDataProvider(MigrateDataProvider.CONCURRENT, null))
+                .dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+                    assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getConstruct, UnsupportedTestNgConstructs.Row::getReason)
+                      .containsExactly(tuple("@DataProvider(parallel)", "Test class has mutable shared fields, concurrent invocations share them"));
+                }),
+              java(PARALLEL_PROVIDER.formatted(fields), CONCURRENT_TEST.formatted(fields)));
+        }
+
+        @Test
+        void keepSequentialProvider() {
+            rewriteRun(
+              java(PARALLEL_PROVIDER.formatted("").replace("parallel = true", "parallel = false"),
+                SEQUENTIAL_TEST.formatted("")));
+        }
+    }
+
+    @Nested
+    class MemoizeSharedProviders {
+
+        //language=java
+        private static final String PROVIDER = """
+          package de.boeg.tst.provider;
+          import org.testng.annotations.DataProvider;
+
+          import java.util.Iterator;
+
+          public class SnapshotDataProvider {
+          %s
+              @DataProvider(name = "snapshot")
+              public static Object[][] loadSnapshot() { /*...*/ }
+
+              @DataProvider(name = "lines")
+              public static Iterator<Object[]> readLines() { /*...*/ }
+          }
+          """;
+
+        //language=java
+        private static final String MIGRATED_PROVIDER = """
+          package de.boeg.tst.provider;
+          import org.junit.jupiter.params.provider.Arguments;
+
+          import java.util.Arrays;
+          import java.util.Iterator;
+          import java.util.Spliterator;
+          import java.util.Spliterators;
+          import java.util.stream.Stream;
+          import java.util.stream.StreamSupport;
+
+          public class SnapshotDataProvider {
+          %s
+              public static Object[][] loadSnapshot() { /*...*/ }
+
+              public static Iterator<Object[]> readLines() { /*...*/ }
+          %s
+              public static Stream<Arguments> lines() {
+                  return StreamSupport.stream(Spliterators.spliteratorUnknownSize(readLines(), Spliterator.ORDERED), false).map(Arguments::of);
+              }
+          }
+          """;
+
+        private static final String MEMOIZED_WRAPPER = """
+
+              private static Object[][] %1$s;
+
+              public static synchronized Stream<Arguments> snapshot() {
+                  if (%1$s == null) {
+                      %1$s = loadSnapshot();
+                  }
+                  return Arrays.stream(%1$s).map(Arguments::of);
+              }
+          """;
+
+        private static final String WRAPPER = """
+
+              public static Stream<Arguments> snapshot() {
+                  return Arrays.stream(loadSnapshot()).map(Arguments::of);
+              }
+          """;
+
+        //language=java
+        private static final String CONSUMER = """
+          package de.boeg.tst.real;
+          import org.testng.annotations.Test;
+
+          import de.boeg.tst.provider.SnapshotDataProvider;
+
+          public class %s {
+              @Test(dataProvider = "snapshot", dataProviderClass = SnapshotDataProvider.class)
+              public void first(Object row) {/*...*/}
+
+              @Test(dataProvider = "lines", dataProviderClass = SnapshotDataProvider.class)
+              public void second(Object row) {/*...*/}
+          }
+          """;
+
+        //language=java
+        private static final String MIGRATED_CONSUMER = """
+          package de.boeg.tst.real;
+          import org.junit.jupiter.params.ParameterizedTest;
+          import org.junit.jupiter.params.provider.MethodSource;
+          import org.testng.annotations.Test;
+
+          import de.boeg.tst.provider.SnapshotDataProvider;
+
+          public class %s {
+              @Test
+              @ParameterizedTest
+              @MethodSource("de.boeg.tst.provider.SnapshotDataProvider#snapshot")
+              public void first(Object row) {/*...*/}
+
+              @Test
+              @ParameterizedTest
+              @MethodSource("de.boeg.tst.provider.SnapshotDataProvider#lines")
+              public void second(Object row) {/*...*/}
+          }
+          """;
+
+        @Test
+        void memoizeProviderOfSeveralTests() {
+            rewriteRun(
+              spec -> spec.recipe(new MigrateDataProvider(null, List.of("de.boeg.tst.provider.SnapshotDataProvider#*")))
+                .dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+                    assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getElement, UnsupportedTestNgConstructs.Row::getReason)
+                      .containsExactly(tuple("de.boeg.tst.provider.SnapshotDataProvider#readLines",
+                        "Provider streams its rows, it is called for every consuming test"));
+                }),
+              java(PROVIDER.formatted(""), MIGRATED_PROVIDER.formatted("", MEMOIZED_WRAPPER.formatted("snapshotRows"))),
+              java(CONSUMER.formatted("FirstTest"), MIGRATED_CONSUMER.formatted("FirstTest")),
+              java(CONSUMER.formatted("SecondTest"), MIGRATED_CONSUMER.formatted("SecondTest")));
+        }
+
+        @Test
+        void memoizeIntoUnusedField() {
+            String fields = """
+                  private static String snapshotRows = "taken";
+
+                  static void snapshotRows2() {}
+              """;
+            rewriteRun(
+              spec -> spec.recipe(new MigrateDataProvider(null, List.of("de.boeg.tst.provider.SnapshotDataProvider#*"))),
+              java(PROVIDER.formatted(fields), MIGRATED_PROVIDER.formatted(fields, MEMOIZED_WRAPPER.formatted("snapshotRows3"))),
+              java(CONSUMER.formatted("FirstTest"), MIGRATED_CONSUMER.formatted("FirstTest")),
+              java(CONSUMER.formatted("SecondTest"), MIGRATED_CONSUMER.formatted("SecondTest")));
+        }
+
+        @Test
+        void keepProviderOfOneTest() {
+            rewriteRun(
+              spec -> spec.recipe(new MigrateDataProvider(null, List.of("de.boeg.tst.provider.SnapshotDataProvider#*"))),
+              java(PROVIDER.formatted(""), MIGRATED_PROVIDER.formatted("", WRAPPER)),
+              java(CONSUMER.formatted("FirstTest"), MIGRATED_CONSUMER.formatted("FirstTest")));
+        }
+
+        @Test
+        void keepProvidersNotListed() {
+            rewriteRun(
+              spec -> spec.recipe(new MigrateDataProvider(null, List.of("de.boeg.tst.provider.SnapshotDataProvider#lines")))
+                .dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+                    assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getElement, UnsupportedTestNgConstructs.Row::getReason)
+                      .containsExactly(tuple("de.boeg.tst.provider.SnapshotDataProvider#readLines",
+                        "Provider streams its rows, it is called for every consuming test"));
+                }),
+              java(PROVIDER.formatted(""), MIGRATED_PROVIDER.formatted("", WRAPPER)),
+              java(CONSUMER.formatted("FirstTest"), MIGRATED_CONSUMER.formatted("FirstTest")),
+              java(CONSUMER.formatted("SecondTest"), MIGRATED_CONSUMER.formatted("SecondTest")));
+        }
+
+        @Test
+        void keepProvidersByDefault() {
+            rewriteRun(
+              java(PROVIDER.formatted(""), MIGRATED_PROVIDER.formatted("", WRAPPER)),
+              java(CONSUMER.formatted("FirstTest"), MIGRATED_CONSUMER.formatted("FirstTest")),
+              java(CONSUMER.formatted("SecondTest"), MIGRATED_CONSUMER.formatted("SecondTest")));
+        }
+    }
 }
@@ -10,12 +10,16 @@
 
 package io.github.mboegers.openrewrite.testngtojupiter;
 
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
 import org.junit.jupiter.api.Test;
+import org.openrewrite.DataTable;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import static io.github.mboegers.openrewrite.testngtojupiter.StatisticsRows.onlyRow;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
 
 class MigrateEnabledTests implements RewriteTest {
@@ -99,4 +103,84 @@ class MigrateEnabledTests implements RewriteTest {
             }
             """));
     }
+
+    @Test
+    void disableOnlyMethodsOfAnonymousClass() {
+        //language=java
+        rewriteRun(java(
+          """
+            import org.testng.annotations.Test;
+                           
+            class MyTest {
+                Object helper() {
+                    return new Object() {
+                        @Test(enabled = false)
+                        void test() {}
+                    };
+                }
+            }
+            """, """
+            import org.junit.jupiter.api.Disabled;
+            import org.testng.annotations.Test;
+                           
+            class MyTest {
+                Object helper() {
+                    return new Object() {
+                        @Disabled
+                        @Test
+                        void test() {}
+                    };
+                }
+            }
+            """));
+    }
+
+    @Test
+    void reportMigrationStatistics() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(MigrationStatistics.Row.class, onlyRow("MyTest.java", 3, 0)),
+          java(
+            """
+              import org.testng.annotations.Test;
+
+              class MyTest {
+                  @Test(enabled = false)
+                  void disabled() {}
+
+                  @Test(enabled = true)
+                  void enabled() {}
+              }
+              """, """
+              import org.junit.jupiter.api.Disabled;
+              import org.testng.annotations.Test;
+
+              class MyTest {
+                  @Disabled
+                  @Test
+                  void disabled() {}
+
+                  @Test
+                  void enabled() {}
+              }
+              """));
+    }
+
+    @Test
+    void skipSourcesWithoutTestNG() {
+        //language=java
+        rewriteRun(
+          spec -> spec.afterRecipe(run -> assertThat(run.getDataTables().keySet())
+            .extracting(DataTable::getName)
+            .doesNotContain(MigrationStatistics.class.getName())),
+          java(
+            """
+              import org.junit.jupiter.api.Test;
+                           
+              class MyTest {
+                  @Test
+                  void test() {}
+              }
+              """));
+    }
 }
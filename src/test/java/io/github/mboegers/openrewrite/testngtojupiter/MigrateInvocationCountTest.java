@@ -0,0 +1,241 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static io.github.mboegers.openrewrite.testngtojupiter.StatisticsRows.onlyRow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.openrewrite.java.Assertions.java;
+
+class MigrateInvocationCountTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.parser(JavaParser.fromJavaVersion()
+            .logCompilationWarningsAndErrors(true)
+            .classpath("junit-jupiter-api", "testng"))
+          .recipe(new MigrateInvocationCount());
+    }
+
+    @Test
+    @DocumentExample
+    void invocationCountOnThreadPool() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+              assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getElement, UnsupportedTestNgConstructs.Row::getConstruct)
+                .containsExactly(tuple("MyTest#test", "@Test(threadPoolSize)"));
+          }),
+          java(
+            """
+              import org.testng.annotations.Test;
+
+              class MyTest {
+                  @Test(invocationCount = 500, threadPoolSize = 16)
+                  void test() {}
+              }
+              """, """
+              import org.junit.jupiter.api.RepeatedTest;
+              import org.junit.jupiter.api.parallel.Execution;
+              import org.junit.jupiter.api.parallel.ExecutionMode;
+
+              class MyTest {
+                  @Execution(ExecutionMode.CONCURRENT)
+                  @RepeatedTest(500)
+                  void test() {}
+              }
+              """));
+    }
+
+    @Test
+    void invocationCount() {
+        //language=java
+        rewriteRun(java(
+          """
+            import org.testng.annotations.Test;
+
+            class MyTest {
+                @Test(invocationCount = 3)
+                void test() {}
+            }
+            """, """
+            import org.junit.jupiter.api.RepeatedTest;
+
+            class MyTest {
+                @RepeatedTest(3)
+                void test() {}
+            }
+            """));
+    }
+
+    @Test
+    void constantInvocationCount() {
+        //language=java
+        rewriteRun(java(
+          """
+            import org.testng.annotations.Test;
+
+            class MyTest {
+                static final int INVOCATIONS = 3;
+
+                @Test(invocationCount = INVOCATIONS, threadPoolSize = 1)
+                void test() {}
+            }
+            """, """
+            import org.junit.jupiter.api.RepeatedTest;
+
+            class MyTest {
+                static final int INVOCATIONS = 3;
+
+                @RepeatedTest(INVOCATIONS)
+                void test() {}
+            }
+            """));
+    }
+
+    @Test
+    void singleInvocation() {
+        //language=java
+        rewriteRun(java(
+          """
+            import org.testng.annotations.Test;
+
+            class MyTest {
+                @Test(invocationCount = 1, threadPoolSize = 4)
+                void test() {}
+            }
+            """, """
+            import org.junit.jupiter.api.Test;
+
+            class MyTest {
+                @Test
+                void test() {}
+            }
+            """));
+    }
+
+    @Test
+    void keepOtherTestsOfTheClass() {
+        //language=java
+        rewriteRun(java(
+          """
+            import org.testng.annotations.Test;
+
+            class MyTest {
+                @Test(invocationCount = 2)
+                void repeated() {}
+
+                @Test(timeOut = 10)
+                void timed() {}
+            }
+            """, """
+            import org.junit.jupiter.api.RepeatedTest;
+            import org.testng.annotations.Test;
+
+            class MyTest {
+                @RepeatedTest(2)
+                void repeated() {}
+
+                @Test(timeOut = 10)
+                void timed() {}
+            }
+            """));
+    }
+
+    @Test
+    void keepTestWithOtherArguments() {
+        //language=java
+        rewriteRun(java(
+          """
+            import org.testng.annotations.Test;
+
+            class MyTest {
+                @Test(invocationCount = 2, timeOut = 10)
+                void test() {}
+            }
+            """));
+    }
+
+    @Test
+    void reportZeroInvocations() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+              assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getElement, UnsupportedTestNgConstructs.Row::getConstruct)
+                .containsExactly(tuple("MyTest#test", "@Test(invocationCount)"));
+          }),
+          java(
+            """
+              import org.testng.annotations.Test;
+
+              class MyTest {
+                  @Test(invocationCount = 0)
+                  void test() {}
+              }
+              """));
+    }
+
+    @Test
+    void reportMigrationStatistics() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(MigrationStatistics.Row.class, onlyRow("MyTest.java", 3, 0)),
+          java(
+            """
+              import org.testng.annotations.Test;
+
+              class MyTest {
+                  @Test(invocationCount = 5, threadPoolSize = 2)
+                  void concurrent() {}
+
+                  @Test(invocationCount = 3)
+                  void repeated() {}
+              }
+              """, """
+              import org.junit.jupiter.api.RepeatedTest;
+              import org.junit.jupiter.api.parallel.Execution;
+              import org.junit.jupiter.api.parallel.ExecutionMode;
+
+              class MyTest {
+                  @Execution(ExecutionMode.CONCURRENT)
+                  @RepeatedTest(5)
+                  void concurrent() {}
+
+                  @RepeatedTest(3)
+                  void repeated() {}
+              }
+              """));
+    }
+
+    @Test
+    void skipMigratedTests() {
+        //language=java
+        rewriteRun(
+          spec -> spec.afterRecipe(run -> assertThat(run.getDataTable(MigrationStatistics.class.getName())).isNull()),
+          java(
+            """
+              import org.junit.jupiter.api.RepeatedTest;
+
+              class MyTest {
+                  @RepeatedTest(3)
+                  void test() {}
+              }
+              """));
+    }
+}
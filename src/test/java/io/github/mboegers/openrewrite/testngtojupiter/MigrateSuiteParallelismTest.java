@@ -0,0 +1,236 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.DocumentExample;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.openrewrite.properties.Assertions.properties;
+import static org.openrewrite.xml.Assertions.xml;
+
+class MigrateSuiteParallelismTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new MigrateSuiteParallelism());
+    }
+
+    @Test
+    @DocumentExample
+    void suiteParallelMethods() {
+        rewriteRun(
+          xml(
+            """
+              <!DOCTYPE suite SYSTEM "https://testng.org/testng-1.0.dtd">
+              <suite name="Suite" parallel="methods" thread-count="24">
+                  <test name="Unit">
+                      <packages>
+                          <package name="com.example"/>
+                      </packages>
+                  </test>
+              </suite>
+              """,
+            spec -> spec.path("src/test/resources/testng.xml")),
+          properties(
+            null,
+            """
+              junit.jupiter.execution.parallel.enabled=true
+              junit.jupiter.execution.parallel.mode.default=concurrent
+              junit.jupiter.execution.parallel.mode.classes.default=concurrent
+              junit.jupiter.execution.parallel.config.strategy=fixed
+              junit.jupiter.execution.parallel.config.fixed.parallelism=24
+              """,
+            spec -> spec.path("src/test/resources/junit-platform.properties")));
+    }
+
+    @Test
+    void testParallelClassesWithDefaultThreadCount() {
+        rewriteRun(
+          xml(
+            """
+              <suite name="Suite">
+                  <test name="Unit" parallel="classes">
+                      <classes>
+                          <class name="com.example.MyTest"/>
+                      </classes>
+                  </test>
+              </suite>
+              """,
+            spec -> spec.path("testng.xml")),
+          properties(
+            null,
+            """
+              junit.jupiter.execution.parallel.enabled=true
+              junit.jupiter.execution.parallel.mode.default=same_thread
+              junit.jupiter.execution.parallel.mode.classes.default=concurrent
+              junit.jupiter.execution.parallel.config.strategy=fixed
+              junit.jupiter.execution.parallel.config.fixed.parallelism=5
+              """,
+            spec -> spec.path("src/test/resources/junit-platform.properties")));
+    }
+
+    @Test
+    void mergeTestsIntoMostParallelSetting() {
+        rewriteRun(
+          spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+              assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getElement, UnsupportedTestNgConstructs.Row::getConstruct)
+                .containsExactly(tuple("Suite", "parallel"));
+          }),
+          xml(
+            """
+              <suite name="Suite" parallel="classes" thread-count="8">
+                  <test name="Fast" parallel="methods" thread-count="4"/>
+                  <test name="Slow"/>
+                  <test name="Serial" parallel="none"/>
+              </suite>
+              """,
+            spec -> spec.path("module/testng.xml")),
+          properties(
+            null,
+            """
+              junit.jupiter.execution.parallel.enabled=true
+              junit.jupiter.execution.parallel.mode.default=concurrent
+              junit.jupiter.execution.parallel.mode.classes.default=concurrent
+              junit.jupiter.execution.parallel.config.strategy=fixed
+              junit.jupiter.execution.parallel.config.fixed.parallelism=8
+              """,
+            spec -> spec.path("module/src/test/resources/junit-platform.properties")));
+    }
+
+    @Test
+    void keepSettingsOfExistingProperties() {
+        rewriteRun(
+          xml(
+            """
+              <suite name="Suite" parallel="methods" thread-count="24"/>
+              """,
+            spec -> spec.path("testng.xml")),
+          properties(
+            """
+              junit.jupiter.execution.parallel.config.strategy=dynamic
+              """,
+            """
+              junit.jupiter.execution.parallel.config.strategy=dynamic
+              junit.jupiter.execution.parallel.enabled=true
+              junit.jupiter.execution.parallel.mode.default=concurrent
+              junit.jupiter.execution.parallel.mode.classes.default=concurrent
+              junit.jupiter.execution.parallel.config.fixed.parallelism=24
+              """,
+            spec -> spec.path("src/test/resources/junit-platform.properties")));
+    }
+
+    @Test
+    void reportParallelTests() {
+        rewriteRun(
+          spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+              assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getElement, UnsupportedTestNgConstructs.Row::getConstruct)
+                .containsExactly(tuple("Suite", "parallel=\"tests\""));
+          }),
+          xml(
+            """
+              <suite name="Suite" parallel="tests" thread-count="2"/>
+              """,
+            spec -> spec.path("testng.xml")),
+          properties(
+            null,
+            """
+              junit.jupiter.execution.parallel.enabled=true
+              junit.jupiter.execution.parallel.mode.default=same_thread
+              junit.jupiter.execution.parallel.mode.classes.default=concurrent
+              junit.jupiter.execution.parallel.config.strategy=fixed
+              junit.jupiter.execution.parallel.config.fixed.parallelism=2
+              """,
+            spec -> spec.path("src/test/resources/junit-platform.properties")));
+    }
+
+    @Test
+    void skipSequentialSuites() {
+        rewriteRun(
+          xml(
+            """
+              <suite name="Suite" parallel="none" thread-count="24">
+                  <test name="Unit"/>
+              </suite>
+              """,
+            spec -> spec.path("testng.xml")));
+    }
+
+    @Test
+    void skipOtherXmlFiles() {
+        rewriteRun(
+          xml(
+            """
+              <project parallel="methods"/>
+              """,
+            spec -> spec.path("pom.xml")));
+    }
+
+    @Test
+    void propertiesInModuleOfBuildFile() {
+        rewriteRun(
+          xml(
+            """
+              <project/>
+              """,
+            spec -> spec.path("core/pom.xml")),
+          xml(
+            """
+              <suite name="Suite" parallel="methods" thread-count="4"/>
+              """,
+            spec -> spec.path("core/config/suites/testng.xml")),
+          properties(
+            null,
+            """
+              junit.jupiter.execution.parallel.enabled=true
+              junit.jupiter.execution.parallel.mode.default=concurrent
+              junit.jupiter.execution.parallel.mode.classes.default=concurrent
+              junit.jupiter.execution.parallel.config.strategy=fixed
+              junit.jupiter.execution.parallel.config.fixed.parallelism=4
+              """,
+            spec -> spec.path("core/src/test/resources/junit-platform.properties")));
+    }
+
+    @Test
+    void propertiesNextToSuiteInTestResources() {
+        assertThat(MigrateSuiteParallelism.propertiesPath(Path.of("core/src/test/resources/suites/testng.xml"), Set.of(Path.of("core"))))
+          .isEqualTo(Path.of("core/src/test/resources/junit-platform.properties"));
+        assertThat(MigrateSuiteParallelism.propertiesPath(Path.of("core/testng.xml"), Set.of()))
+          .isEqualTo(Path.of("core/src/test/resources/junit-platform.properties"));
+    }
+
+    @Test
+    void propertiesOfNearestModule() {
+        Set<Path> modules = Set.of(Path.of(""), Path.of("core"), Path.of("core/api"));
+
+        assertThat(MigrateSuiteParallelism.propertiesPath(Path.of("core/api/suites/testng.xml"), modules))
+          .isEqualTo(Path.of("core/api/src/test/resources/junit-platform.properties"));
+        assertThat(MigrateSuiteParallelism.propertiesPath(Path.of("core/src/test/suites/testng.xml"), modules))
+          .isEqualTo(Path.of("core/src/test/resources/junit-platform.properties"));
+        assertThat(MigrateSuiteParallelism.propertiesPath(Path.of("tools/testng.xml"), modules))
+          .isEqualTo(Path.of("src/test/resources/junit-platform.properties"));
+    }
+
+    @Test
+    void propertiesAboveSourceDirectoryWithoutBuildFile() {
+        assertThat(MigrateSuiteParallelism.propertiesPath(Path.of("src/test/suites/testng.xml"), Set.of()))
+          .isEqualTo(Path.of("src/test/resources/junit-platform.properties"));
+        assertThat(MigrateSuiteParallelism.propertiesPath(Path.of("core/src/test/suites/testng.xml"), Set.of()))
+          .isEqualTo(Path.of("core/src/test/resources/junit-platform.properties"));
+    }
+}
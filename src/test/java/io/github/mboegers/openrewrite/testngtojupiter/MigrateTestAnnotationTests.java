@@ -9,12 +9,16 @@
  */
 package io.github.mboegers.openrewrite.testngtojupiter;
 
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import io.github.mboegers.openrewrite.testngtojupiter.table.UnsupportedTestNgConstructs;
 import org.junit.jupiter.api.Test;
 import org.openrewrite.DocumentExample;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.openrewrite.java.Assertions.java;
 
 class MigrateTestAnnotationTests implements RewriteTest {
@@ -84,4 +88,88 @@ class MigrateTestAnnotationTests implements RewriteTest {
           """));
     }
 
+    @Test
+    void skipSourcesWithoutTestNG() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(MigrationStatistics.Row.class, rows -> assertThat(rows)
+            .extracting(MigrationStatistics.Row::getSourcePath)
+            .containsExactly("NgTest.java")),
+          java(
+            """
+              import org.junit.jupiter.api.Test;
+                           
+              class JupiterTest {
+                  @Test
+                  void test() {}
+              }
+              """),
+          java(
+            """
+              import org.testng.annotations.Test;
+                           
+              class NgTest {
+                  @Test
+                  void test() {}
+              }
+              """, """
+              import org.junit.jupiter.api.Test;
+                           
+              class NgTest {
+                  @Test
+                  void test() {}
+              }
+              """));
+    }
+
+    @Test
+    void reportMigrationStatistics() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(MigrationStatistics.Row.class, rows -> {
+              assertThat(rows).hasSize(1);
+              assertThat(rows.get(0).getSourcePath()).isEqualTo("MyTest.java");
+              assertThat(rows.get(0).getAnnotationsRewritten()).isEqualTo(2);
+              assertThat(rows.get(0).getTemplatesApplied()).isZero();
+          }),
+          java(
+                """
+          import org.testng.annotations.Test;
+                         
+          class MyTest {
+              @Test
+              void first() {}
+              @Test
+              void second() {}
+          }
+          """, """
+          import org.junit.jupiter.api.Test;
+                          
+          class MyTest {
+              @Test
+              void first() {}
+              @Test
+              void second() {}
+          }
+          """));
+    }
+
+    @Test
+    void reportUnsupportedArguments() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(UnsupportedTestNgConstructs.Row.class, rows -> {
+              assertThat(rows).extracting(UnsupportedTestNgConstructs.Row::getElement, UnsupportedTestNgConstructs.Row::getConstruct)
+                .containsExactly(tuple("MyTest#test", "@Test(timeOut)"));
+          }),
+          java(
+                """
+          import org.testng.annotations.Test;
+                         
+          class MyTest {
+              @Test(timeOut = 10, enabled = false)
+              void test() {}
+          }
+          """));
+    }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openrewrite.*;
+import org.openrewrite.config.Environment;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.github.mboegers.openrewrite.testngtojupiter.StatisticsRows.onlyRow;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+class MigrateTestNgAnnotationsTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.parser(JavaParser.fromJavaVersion()
+            .logCompilationWarningsAndErrors(true)
+            .classpath("junit-jupiter-api", "testng"))
+          .recipe(new MigrateTestNgAnnotations());
+    }
+
+    @Test
+    @DocumentExample
+    void replaceAtTest() {
+        //language=java
+        rewriteRun(java(
+          """
+            import org.testng.annotations.Test;
+                           
+            class MyTest {
+                @Test
+                void test() {}
+            }
+            """, """
+            import org.junit.jupiter.api.Test;
+                            
+            class MyTest {
+                @Test
+                void test() {}
+            }
+            """));
+    }
+
+    @Test
+    void keepAtTestWithArguments() {
+        //language=java
+        rewriteRun(java(
+          """
+            import org.testng.annotations.Test;
+                           
+            class MyTest {
+                @Test(timeOut = 10)
+                void test() {}
+            }
+            """));
+    }
+
+    @Test
+    void reportMigrationStatistics() {
+        //language=java
+        rewriteRun(
+          spec -> spec.dataTable(MigrationStatistics.Row.class, onlyRow("MyTest.java", 4, 0)),
+          java(
+            """
+              import org.testng.annotations.BeforeMethod;
+              import org.testng.annotations.Test;
+
+              class MyTest {
+                  @BeforeMethod
+                  void beforeEach() {}
+
+                  @Test(enabled = false)
+                  void disabled() {}
+              }
+              """, """
+              import org.junit.jupiter.api.BeforeEach;
+              import org.junit.jupiter.api.Disabled;
+              import org.junit.jupiter.api.Test;
+
+              class MyTest {
+                  @BeforeEach
+                  void beforeEach() {}
+
+                  @Disabled
+                  @Test
+                  void disabled() {}
+              }
+              """));
+    }
+
+    @Nested
+    class EquivalentToDeclarativeRecipe {
+
+        private final Environment environment = Environment.builder()
+          .scanRuntimeClasspath("io.github.mboegers.openrewrite")
+          .build();
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+          """
+            import org.testng.annotations.*;
+                        
+            class MyTest {
+                @BeforeClass
+                static void beforeAll() {}
+                        
+                @AfterClass
+                static void afterAll() {}
+                        
+                @BeforeMethod
+                void beforeEach() {}
+                        
+                @AfterMethod
+                void afterEach() {}
+                        
+                @Test
+                void test() {}
+                        
+                @Test(enabled = false)
+                void disabled() {}
+                        
+                @Test(enabled = true)
+                void enabled() {}
+            }
+            """,
+          """
+            import org.testng.annotations.BeforeMethod;
+            import org.testng.annotations.Test;
+                        
+            class MyTest {
+                @BeforeMethod
+                void beforeEach() {}
+                        
+                @Deprecated
+                @Test
+                void sortedTest() {}
+                        
+                @Test
+                @Deprecated
+                void unsortedTest() {}
+                        
+                @Test(enabled = false, timeOut = 10)
+                void keepsTimeOut() {}
+            }
+            """,
+          """
+            import org.testng.annotations.DataProvider;
+            import org.testng.annotations.Test;
+                        
+            class MyTest {
+                @DataProvider
+                Object[][] numbers() {
+                    return new Object[][]{{1}};
+                }
+                        
+                @Test(dataProvider = "numbers")
+                void parameterized(int number) {}
+                        
+                @Test
+                void test() {}
+            }
+            """,
+          """
+            class MyTest {
+                @org.testng.annotations.BeforeMethod
+                void beforeEach() {}
+                        
+                @org.testng.annotations.Test
+                void test() {}
+            }
+            """
+        })
+        void sameResultForSource(@Language("java") String source) {
+            assertEquivalent(JavaParser.fromJavaVersion()
+              .classpath("junit-jupiter-api", "testng")
+              .build()
+              .parse(new InMemoryExecutionContext(), source)
+              .toList());
+        }
+
+        @Test
+        void sameResultForGeneratedCorpus() {
+            assertEquivalent(TestNgCorpus.builder()
+              .nestingDepth(2)
+              .build()
+              .parse(new InMemoryExecutionContext()));
+        }
+
+        private void assertEquivalent(List<SourceFile> sources) {
+            Map<Path, String> declarative = run(environment.activateRecipes("io.github.mboegers.openrewrite.TestNgToJUnitJupiter"), sources);
+            Map<Path, String> singlePass = run(environment.activateRecipes("io.github.mboegers.openrewrite.TestNgToJUnitJupiterSinglePass"), sources);
+
+            assertThat(declarative).isNotEmpty();
+            assertThat(singlePass).isEqualTo(declarative);
+        }
+
+        private static Map<Path, String> run(Recipe recipe, List<SourceFile> sources) {
+            return recipe.run(new InMemoryLargeSourceSet(sources), new InMemoryExecutionContext(t -> {
+                  throw new AssertionError(t);
+              }))
+              .getChangeset()
+              .getAllResults()
+              .stream()
+              .filter(result -> result.getAfter() != null)
+              .collect(Collectors.toMap(result -> result.getAfter().getSourcePath(), result -> result.getAfter().printAll()));
+        }
+    }
+}
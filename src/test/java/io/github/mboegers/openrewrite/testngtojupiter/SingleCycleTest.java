@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.test.RewriteTest.toRecipe;
+
+/**
+ * Every changed file costs a full visit per cycle and every after visit another one, so the migration has to
+ * converge in one cycle and schedule after visits per file, not per method.
+ */
+class SingleCycleTest implements RewriteTest {
+
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.parser(JavaParser.fromJavaVersion()
+            .logCompilationWarningsAndErrors(true)
+            .classpath("junit-jupiter-api", "testng"))
+          .recipeFromResources("io.github.mboegers.openrewrite.TestNgToJUnitJupiter");
+    }
+
+    @Test
+    void migrateDisabledTestInOneCycle() {
+        //language=java
+        rewriteRun(
+          spec -> spec.cycles(2).expectedCyclesThatMakeChanges(1),
+          java(
+            """
+              import org.testng.annotations.Test;
+
+              class MyTest {
+                  @Test(enabled = false)
+                  void disabled() {}
+
+                  @Test(enabled = true)
+                  void enabled() {}
+              }
+              """,
+            spec -> spec.after(actual -> {
+                assertThat(actual)
+                  .contains("@Disabled\n    @Test\n    void disabled()", "    @Test\n    void enabled()")
+                  .doesNotContain("org.testng", "enabled =");
+                return actual;
+            })));
+    }
+
+    @Test
+    void migrateEnabledArgumentSchedulesAfterVisitsPerFile() {
+        MigrateEnabledArgument recipe = new MigrateEnabledArgument();
+        Function<AtomicInteger, JavaIsoVisitor<ExecutionContext>> visitor = afterVisits ->
+          new MigrateEnabledArgument.MigrateEnabledArgumentVisitor(recipe.getName(), recipe.getStatistics(),
+            recipe.getUnsupportedConstructs()) {
+              @Override
+              public void doAfterVisit(TreeVisitor<?, ExecutionContext> afterVisit) {
+                  afterVisits.incrementAndGet();
+                  super.doAfterVisit(afterVisit);
+              }
+          };
+
+        assertThat(afterVisits(visitor, 1, "@Test(enabled = false)", "import org.testng.annotations.Test;",
+          "@Disabled\n    @Test", "import org.junit.jupiter.api.Disabled;\nimport org.testng.annotations.Test;"))
+          .isEqualTo(afterVisits(visitor, 20, "@Test(enabled = false)", "import org.testng.annotations.Test;",
+            "@Disabled\n    @Test", "import org.junit.jupiter.api.Disabled;\nimport org.testng.annotations.Test;"))
+          .isEqualTo(1);
+    }
+
+    @Test
+    void migrateTestAnnotationSchedulesAfterVisitsPerFile() {
+        MigrateTestAnnotation recipe = new MigrateTestAnnotation();
+        Function<AtomicInteger, JavaIsoVisitor<ExecutionContext>> visitor = afterVisits ->
+          recipe.new ReplaceTestAnnotationVisitor() {
+              @Override
+              public void doAfterVisit(TreeVisitor<?, ExecutionContext> afterVisit) {
+                  afterVisits.incrementAndGet();
+                  super.doAfterVisit(afterVisit);
+              }
+          };
+
+        assertThat(afterVisits(visitor, 1, "@Test", "import org.testng.annotations.Test;",
+          "@Test", "import org.junit.jupiter.api.Test;"))
+          .isEqualTo(afterVisits(visitor, 20, "@Test", "import org.testng.annotations.Test;",
+            "@Test", "import org.junit.jupiter.api.Test;"))
+          .isEqualTo(2);
+    }
+
+    /**
+     * Migrate a class with the given number of annotated methods in a single cycle
+     *
+     * @return the after visits the visitor scheduled
+     */
+    private int afterVisits(Function<AtomicInteger, JavaIsoVisitor<ExecutionContext>> visitor, int methods,
+                            String annotation, String imports, String migratedAnnotation, String migratedImports) {
+        AtomicInteger afterVisits = new AtomicInteger();
+        rewriteRun(
+          spec -> spec.recipe(toRecipe(() -> visitor.apply(afterVisits)))
+            .cycles(1)
+            .expectedCyclesThatMakeChanges(1),
+          java(source(imports, annotation, methods), source(migratedImports, migratedAnnotation, methods)));
+        return afterVisits.get();
+    }
+
+    private static String source(String imports, String annotation, int methods) {
+        StringBuilder source = new StringBuilder(imports).append("\n\nclass MyTest {\n");
+        for (int i = 0; i < methods; i++) {
+            source.append("    ").append(annotation).append("\n    void test").append(i).append("() {}\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import io.github.mboegers.openrewrite.testngtojupiter.table.MigrationStatistics;
+import org.openrewrite.test.UncheckedConsumer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Expectations on the {@link MigrationStatistics} rows of a recipe run, for use with
+ * {@link org.openrewrite.test.RecipeSpec#dataTable(Class, UncheckedConsumer)}.
+ */
+final class StatisticsRows {
+
+    private StatisticsRows() {
+    }
+
+    /**
+     * Expects a single row, written for the file at {@code sourcePath} with the given counts.
+     */
+    static UncheckedConsumer<List<MigrationStatistics.Row>> onlyRow(String sourcePath, int annotationsRewritten,
+                                                                     int templatesApplied) {
+        return rows -> assertThat(rows)
+          .extracting(MigrationStatistics.Row::getSourcePath, MigrationStatistics.Row::getAnnotationsRewritten,
+            MigrationStatistics.Row::getTemplatesApplied)
+          .containsExactly(tuple(sourcePath, annotationsRewritten, templatesApplied));
+    }
+}
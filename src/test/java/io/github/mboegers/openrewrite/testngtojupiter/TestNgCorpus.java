@@ -0,0 +1,282 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import lombok.Builder;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Seeded generator for synthetic TestNG test suites, used to measure how the recipes scale with file size and count.
+ * <p>
+ * The same options and seed always produce the same sources.
+ */
+@Value
+@Builder(toBuilder = true)
+public class TestNgCorpus {
+
+    private static final String[] ASSERTIONS = {
+      "Assert.assertEquals(%1$s, %2$s);",
+      "Assert.assertEquals(%1$s, %2$s, \"values differ\");",
+      "Assert.assertNotEquals(%1$s, null);",
+      "Assert.assertTrue(%1$s != null);",
+      "Assert.assertFalse(%1$s == null, \"value missing\");"
+    };
+
+    @Builder.Default
+    long seed = 42;
+
+    /**
+     * Number of generated test classes
+     */
+    @Builder.Default
+    int testClasses = 10;
+
+    /**
+     * Number of {@code @Test} methods per class, including disabled and data driven ones
+     */
+    @Builder.Default
+    int testMethods = 20;
+
+    /**
+     * Number of tests per class annotated with {@code @Test(enabled = false)}
+     */
+    @Builder.Default
+    int disabledTests = 2;
+
+    /**
+     * Number of {@code @DataProvider} methods declared in each test class
+     */
+    @Builder.Default
+    int inClassProviders = 1;
+
+    /**
+     * Number of shared provider classes referenced via {@code dataProviderClass}
+     */
+    @Builder.Default
+    int providerClasses = 1;
+
+    /**
+     * Number of {@code @DataProvider} methods in each shared provider class
+     */
+    @Builder.Default
+    int providersPerClass = 2;
+
+    /**
+     * Number of tests per class consuming an in-class or shared data provider
+     */
+    @Builder.Default
+    int dataDrivenTests = 4;
+
+    /**
+     * Number of {@code Assert.*} calls per test method
+     */
+    @Builder.Default
+    int assertionsPerTest = 2;
+
+    /**
+     * Whether to generate {@code @BeforeClass}, {@code @AfterClass}, {@code @BeforeMethod} and {@code @AfterMethod}
+     */
+    @Builder.Default
+    boolean lifecycleMethods = true;
+
+    /**
+     * Depth of nested test classes, each with the same content as the outer class
+     */
+    @Builder.Default
+    int nestingDepth = 0;
+
+    /**
+     * Number of generated classes without any TestNG reference
+     */
+    @Builder.Default
+    int plainClasses = 0;
+
+    public record Source(Path path, String content) {
+    }
+
+    /**
+     * Generates the provider classes followed by the test classes and the plain classes
+     *
+     * @return the generated sources
+     */
+    public List<Source> generate() {
+        Random random = new Random(seed);
+        List<Source> sources = new ArrayList<>();
+
+        for (int i = 0; i < providerClasses; i++) {
+            sources.add(providerClass(i));
+        }
+        for (int i = 0; i < testClasses; i++) {
+            String packageName = "corpus.tests.p" + (i % 10);
+            String className = "GeneratedTest" + i;
+            StringBuilder source = new StringBuilder()
+              .append("package ").append(packageName).append(";\n\n")
+              .append("import org.testng.Assert;\n")
+              .append("import org.testng.annotations.*;\n\n");
+            testClass(source, random, className, "public class", "", 0);
+            sources.add(new Source(Path.of(packageName.replace('.', '/'), className + ".java"), source.toString()));
+        }
+        for (int i = 0; i < plainClasses; i++) {
+            sources.add(plainClass(i));
+        }
+
+        return sources;
+    }
+
+    /**
+     * Generates and parses the corpus
+     *
+     * @param ctx to parse with
+     * @return the parsed sources in generation order
+     */
+    public List<SourceFile> parse(ExecutionContext ctx) {
+        return JavaParser.fromJavaVersion()
+          .classpath("junit-jupiter-api", "junit-jupiter-params", "testng")
+          .build()
+          .parse(ctx, generate().stream().map(Source::content).toArray(String[]::new))
+          .toList();
+    }
+
+    /**
+     * Generates the corpus and writes it below the given directory
+     *
+     * @param root directory to write to
+     * @return the generated sources
+     */
+    public List<Source> writeTo(Path root) {
+        List<Source> sources = generate();
+        try {
+            for (Source source : sources) {
+                Path file = root.resolve(source.path());
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, source.content());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sources;
+    }
+
+    private boolean hasSharedProviders() {
+        return providerClasses > 0 && providersPerClass > 0;
+    }
+
+    private Source providerClass(int index) {
+        String className = "SharedProviders" + index;
+        StringBuilder source = new StringBuilder()
+          .append("package corpus.providers;\n\n")
+          .append("import org.testng.annotations.DataProvider;\n\n")
+          .append("public class ").append(className).append(" {\n");
+        for (int p = 0; p < providersPerClass; p++) {
+            source.append("""
+
+                        @DataProvider(name = "shared%1$d")
+                        public static Object[][] provider%1$d() {
+                            return new Object[][]{{%1$d, %1$d}};
+                        }
+                    """.formatted(p));
+        }
+        source.append("}\n");
+        return new Source(Path.of("corpus/providers", className + ".java"), source.toString());
+    }
+
+    private Source plainClass(int index) {
+        String packageName = "corpus.main.p" + (index % 10);
+        String className = "Plain" + index;
+        String source = """
+          package %1$s;
+
+          import java.util.Objects;
+
+          public class %2$s {
+              private final String value;
+
+              public %2$s(String value) {
+                  this.value = Objects.requireNonNull(value);
+              }
+
+              public String value() {
+                  return value;
+              }
+          }
+          """.formatted(packageName, className);
+        return new Source(Path.of(packageName.replace('.', '/'), className + ".java"), source);
+    }
+
+    private void testClass(StringBuilder source, Random random, String className, String declaration, String indent, int depth) {
+        source.append(indent).append(declaration).append(' ').append(className).append(" {\n");
+        String member = indent + "    ";
+
+        if (lifecycleMethods) {
+            for (String lifecycle : List.of("BeforeClass", "AfterClass", "BeforeMethod", "AfterMethod")) {
+                source.append(member).append('@').append(lifecycle).append('\n')
+                  .append(member).append("void ").append(Character.toLowerCase(lifecycle.charAt(0)))
+                  .append(lifecycle.substring(1)).append("() {}\n\n");
+            }
+        }
+
+        for (int p = 0; p < inClassProviders; p++) {
+            source.append(member).append("@DataProvider\n")
+              .append(member).append("public Object[][] local").append(p).append("() {\n")
+              .append(member).append("    return new Object[][]{{").append(p).append(", ").append(p).append("}};\n")
+              .append(member).append("}\n\n");
+        }
+
+        // shuffle which methods are disabled or data driven, the rest are plain tests
+        List<Integer> kinds = new ArrayList<>(IntStream.range(0, testMethods).boxed().toList());
+        Collections.shuffle(kinds, random);
+        for (int t = 0; t < testMethods; t++) {
+            int kind = kinds.get(t);
+            String arguments = "";
+            String parameters = "";
+            String actual = "\"" + className + t + "\"";
+            String expected = actual;
+            if (kind < disabledTests) {
+                arguments = "(enabled = false)";
+            } else if (kind < disabledTests + dataDrivenTests && (inClassProviders > 0 || hasSharedProviders())) {
+                boolean useShared = inClassProviders == 0 || (hasSharedProviders() && random.nextBoolean());
+                arguments = useShared
+                  ? "(dataProvider = \"shared%d\", dataProviderClass = corpus.providers.SharedProviders%d.class)"
+                    .formatted(random.nextInt(providersPerClass), random.nextInt(providerClasses))
+                  : "(dataProvider = \"local%d\")".formatted(random.nextInt(inClassProviders));
+                parameters = "Object actual, Object expected";
+                actual = "actual";
+                expected = "expected";
+            }
+
+            source.append(member).append("@Test").append(arguments).append('\n')
+              .append(member).append("public void test").append(t).append('(').append(parameters).append(") {\n");
+            for (int a = 0; a < assertionsPerTest; a++) {
+                source.append(member).append("    ")
+                  .append(ASSERTIONS[random.nextInt(ASSERTIONS.length)].formatted(actual, expected)).append('\n');
+            }
+            source.append(member).append("}\n\n");
+        }
+
+        if (depth < nestingDepth) {
+            testClass(source, random, "Nested" + (depth + 1), "public static class", member, depth + 1);
+        }
+
+        source.append(indent).append("}\n");
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.tree.J;
+
+import static org.apache.commons.lang3.StringUtils.countMatches;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestNgCorpusTest {
+
+    private final TestNgCorpus corpus = TestNgCorpus.builder()
+      .testClasses(3)
+      .testMethods(10)
+      .disabledTests(3)
+      .dataDrivenTests(4)
+      .assertionsPerTest(2)
+      .nestingDepth(1)
+      .build();
+
+    @Test
+    void sameSeedGeneratesSameSources() {
+        assertThat(corpus.generate()).isEqualTo(corpus.generate());
+    }
+
+    @Test
+    void otherSeedGeneratesOtherSources() {
+        assertThat(corpus.toBuilder().seed(7).build().generate()).isNotEqualTo(corpus.generate());
+    }
+
+    @Test
+    void generatesConfiguredCounts() {
+        var sources = corpus.generate();
+        assertThat(sources).hasSize(4);
+
+        // outer and nested class each hold the configured content
+        var testClass = sources.get(1).content();
+        assertThat(countMatches(testClass, "@Test")).isEqualTo(20);
+        assertThat(countMatches(testClass, "enabled = false")).isEqualTo(6);
+        assertThat(countMatches(testClass, "dataProvider = ")).isEqualTo(8);
+        assertThat(countMatches(testClass, "Assert.assert")).isEqualTo(40);
+        assertThat(countMatches(testClass, "@BeforeMethod")).isEqualTo(2);
+        assertThat(countMatches(testClass, "public static class Nested1")).isEqualTo(1);
+    }
+
+    @Test
+    void plainClassesDoNotMentionTestNg() {
+        var sources = corpus.toBuilder().plainClasses(5).build().generate();
+
+        assertThat(sources).hasSize(9);
+        assertThat(sources.subList(4, 9)).noneMatch(source -> source.content().contains("org.testng"));
+    }
+
+    @Test
+    void generatedSourcesParse() {
+        assertThat(corpus.parse(new InMemoryExecutionContext()))
+          .hasSize(4)
+          .allMatch(J.CompilationUnit.class::isInstance);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.helper;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.AnnotationMatcher;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FindAnnotatedMethodsTest {
+
+    private static final AnnotationMatcher DATA_PROVIDER = new AnnotationMatcher("@org.testng.annotations.DataProvider");
+
+    @Test
+    void collectMembersInDeclarationOrder() {
+        //language=java
+        J.CompilationUnit cu = (J.CompilationUnit) JavaParser.fromJavaVersion()
+          .classpath("testng")
+          .build()
+          .parse(new InMemoryExecutionContext(), """
+            import org.testng.annotations.DataProvider;
+
+            class Providers {
+                @DataProvider
+                static Object[][] second() { return new Object[0][]; }
+
+                static Object[][] notAProvider() { return new Object[0][]; }
+
+                int field;
+
+                @DataProvider(name = "named")
+                static Object[][] first() { return new Object[0][]; }
+
+                static class Nested {
+                    @DataProvider
+                    static Object[][] nested() { return new Object[0][]; }
+                }
+
+                Object anonymous() {
+                    return new Object() {
+                        @DataProvider
+                        Object[][] local() { return new Object[0][]; }
+                    };
+                }
+            }
+            """)
+          .findFirst()
+          .orElseThrow();
+
+        assertThat(FindAnnotatedMethods.collectMembers(cu.getClasses().get(0), DATA_PROVIDER))
+          .extracting(J.MethodDeclaration::getSimpleName)
+          .containsExactly("second", "first");
+    }
+
+    @Test
+    void collectNothingFromEmptyClass() {
+        //language=java
+        J.CompilationUnit cu = (J.CompilationUnit) JavaParser.fromJavaVersion()
+          .build()
+          .parse(new InMemoryExecutionContext(), "class Empty {}")
+          .findFirst()
+          .orElseThrow();
+
+        assertThat(FindAnnotatedMethods.collectMembers(cu.getClasses().get(0), DATA_PROVIDER)).isEmpty();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.helper;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.AnnotationMatcher;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FindAnnotationTest {
+
+    private static final AnnotationMatcher TESTNG_TEST = new AnnotationMatcher("@org.testng.annotations.Test");
+
+    @Test
+    void findLeadingAnnotationOfMethod() {
+        J.ClassDeclaration myTest = parse("""
+          import org.testng.annotations.Test;
+
+          class MyTest {
+              @Deprecated
+              @Test(enabled = false)
+              void test() {}
+          }
+          """);
+
+        assertThat(FindAnnotation.findFirstDeclared(method(myTest, 0), TESTNG_TEST))
+          .hasValueSatisfying(a -> assertThat(a.printTrimmed()).isEqualTo("@Test(enabled = false)"));
+    }
+
+    @Test
+    void findAnnotationBetweenModifiers() {
+        J.ClassDeclaration myTest = parse("""
+          import org.testng.annotations.Test;
+
+          class MyTest {
+              public @Test static void modifier() {}
+              public @Test void returnType() {}
+          }
+          """);
+
+        assertThat(FindAnnotation.isDeclaredOn(method(myTest, 0), TESTNG_TEST)).isTrue();
+        assertThat(FindAnnotation.isDeclaredOn(method(myTest, 1), TESTNG_TEST)).isTrue();
+    }
+
+    @Test
+    void findAnnotationOfClassAndField() {
+        J.ClassDeclaration myTest = parse("""
+          import org.testng.annotations.Test;
+
+          @Test
+          class MyTest {
+              @Deprecated
+              int field;
+          }
+          """);
+
+        assertThat(FindAnnotation.isDeclaredOn(myTest, TESTNG_TEST)).isTrue();
+        assertThat(FindAnnotation.isDeclaredOn(myTest.getBody().getStatements().get(0),
+          new AnnotationMatcher("@java.lang.Deprecated"))).isTrue();
+    }
+
+    @Test
+    void returnFirstMatch() {
+        J.ClassDeclaration myTest = parse("""
+          import org.testng.annotations.Test;
+
+          class MyTest {
+              @Deprecated(since = "1")
+              public @Deprecated(since = "2") void test() {}
+          }
+          """);
+
+        assertThat(FindAnnotation.findFirstDeclared(method(myTest, 0), new AnnotationMatcher("@java.lang.Deprecated")))
+          .hasValueSatisfying(a -> assertThat(a.printTrimmed()).isEqualTo("@Deprecated(since = \"1\")"));
+    }
+
+    @Test
+    void ignoreAnnotationsOfNestedClasses() {
+        J.ClassDeclaration myTest = parse("""
+          import org.testng.annotations.Test;
+
+          class MyTest {
+              @Test
+              static class Nested {
+                  @Test
+                  void test() {}
+              }
+          }
+          """);
+
+        assertThat(FindAnnotation.isDeclaredOn(myTest, TESTNG_TEST)).isFalse();
+        assertThat(FindAnnotation.findFirst(myTest, TESTNG_TEST)).isPresent();
+    }
+
+    @Test
+    void ignoreAnnotationsOfAnonymousClassesInBody() {
+        J.ClassDeclaration myTest = parse("""
+          import org.testng.annotations.Test;
+
+          class MyTest {
+              Object helper() {
+                  return new Object() {
+                      @Test
+                      void test() {}
+                  };
+              }
+          }
+          """);
+
+        assertThat(FindAnnotation.findFirstDeclared(method(myTest, 0), TESTNG_TEST)).isEmpty();
+        assertThat(FindAnnotation.findFirst(method(myTest, 0), TESTNG_TEST)).isPresent();
+    }
+
+    @Test
+    void emptyForOtherTrees() {
+        J.ClassDeclaration myTest = parse("""
+          import org.testng.annotations.Test;
+
+          class MyTest {
+              @Test
+              void test() {}
+          }
+          """);
+
+        assertThat(FindAnnotation.findFirstDeclared(myTest.getBody(), TESTNG_TEST)).isEmpty();
+    }
+
+    private static J.ClassDeclaration parse(@Language("java") String source) {
+        J.CompilationUnit cu = (J.CompilationUnit) JavaParser.fromJavaVersion()
+          .classpath("testng")
+          .build()
+          .parse(new InMemoryExecutionContext(), source)
+          .findFirst()
+          .orElseThrow();
+        return cu.getClasses().get(0);
+    }
+
+    private static J.MethodDeclaration method(J.ClassDeclaration classDecl, int index) {
+        return (J.MethodDeclaration) classDecl.getBody().getStatements().get(index);
+    }
+}
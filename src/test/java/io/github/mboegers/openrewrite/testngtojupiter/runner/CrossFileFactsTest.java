@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider.DataProviderIndex;
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider.Provider;
+import io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider.Reference;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrossFileFactsTest {
+
+    private static final Provider BOXES = new Provider("de.boeg.tst.Boxes", "boxes", "boxes", "boxes", false);
+    private static final Provider ROWS = new Provider("de.boeg.tst.Rows", "data", "rows", "rows", false);
+
+    @Test
+    void selectProvidersNamedInFile() {
+        String facts = new CrossFileFacts(index()).of(bytes("""
+          @Test(dataProvider = "boxes", dataProviderClass = Boxes.class)
+          void test(String box) {}
+          """));
+
+        assertThat(facts).isEqualTo(BOXES + " consumers=0");
+    }
+
+    @Test
+    void selectProvidersByMethodName() {
+        String facts = new CrossFileFacts(index()).of(bytes("""
+          @DataProvider(name = "other")
+          Object[][] data() {}
+          """));
+
+        assertThat(facts).isEqualTo(ROWS + " consumers=0");
+    }
+
+    @Test
+    void ignoreNamesWithinWords() {
+        String facts = new CrossFileFacts(index()).of(bytes("""
+          class Unrelated {
+              String rowsOfBoxes;
+          }
+          """));
+
+        assertThat(facts).isEmpty();
+    }
+
+    @Test
+    void changeWithConsumersOfNamedProvider() {
+        DataProviderIndex index = index();
+        CrossFileFacts facts = new CrossFileFacts(index);
+        byte[] provider = bytes("Object[][] boxes() {}");
+        byte[] unrelated = bytes("Object[][] data() {}");
+        String before = facts.of(provider);
+        String unrelatedBefore = facts.of(unrelated);
+
+        index.add(new Reference(BOXES.declaringClass(), BOXES.name(), "de.boeg.tst.BoxTest#test"));
+
+        assertThat(facts.of(provider)).isNotEqualTo(before).isEqualTo(BOXES + " consumers=1");
+        assertThat(facts.of(unrelated)).isEqualTo(unrelatedBefore);
+    }
+
+    private static DataProviderIndex index() {
+        DataProviderIndex index = new DataProviderIndex();
+        index.add(BOXES);
+        index.add(ROWS);
+        return index;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
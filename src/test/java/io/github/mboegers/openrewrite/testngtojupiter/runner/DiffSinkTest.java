@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiffSinkTest {
+
+    private static final byte[] BEFORE = "class A {}\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] AFTER = "class B {}\n".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void onePatchPerModule(@TempDir Path root, @TempDir Path diffs) throws IOException {
+        Files.createDirectories(root.resolve("core/src/test/java"));
+        Files.createFile(root.resolve("core/pom.xml"));
+
+        try (DiffSink sink = new DiffSink(root, diffs, false)) {
+            sink.accept(Path.of("core/src/test/java/A.java"), BEFORE, AFTER);
+            sink.accept(Path.of("core/src/test/java/B.java"), BEFORE, AFTER);
+            sink.accept(Path.of("tools/C.java"), BEFORE, AFTER);
+        }
+
+        assertThat(Files.readString(diffs.resolve(DiffSink.patchPath(Path.of("core"), false))))
+          .contains("--- a/core/src/test/java/A.java", "--- a/core/src/test/java/B.java")
+          .doesNotContain("C.java");
+        assertThat(Files.readString(diffs.resolve(DiffSink.patchPath(DiffSink.ROOT_MODULE, false))))
+          .contains("--- a/tools/C.java\n+++ b/tools/C.java\n@@ -1,1 +1,1 @@\n-class A {}\n+class B {}\n");
+    }
+
+    @Test
+    void separatePatchesOfModulesWithSimilarNames(@TempDir Path root, @TempDir Path diffs) throws IOException {
+        for (String module : new String[]{"a/b", "a_b", "a"}) {
+            Files.createDirectories(root.resolve(module));
+            Files.createFile(root.resolve(module).resolve("pom.xml"));
+        }
+
+        try (DiffSink sink = new DiffSink(root, diffs, false)) {
+            sink.accept(Path.of("a/b/B.java"), BEFORE, AFTER);
+            sink.accept(Path.of("a_b/C.java"), BEFORE, AFTER);
+            sink.accept(Path.of("a/A.java"), BEFORE, AFTER);
+        }
+
+        assertThat(Files.readString(diffs.resolve(DiffSink.patchPath(Path.of("a/b"), false))))
+          .startsWith("diff --git a/a/b/B.java b/a/b/B.java\n")
+          .doesNotContain("C.java", "A.java");
+        assertThat(Files.readString(diffs.resolve(DiffSink.patchPath(Path.of("a_b"), false))))
+          .startsWith("diff --git a/a_b/C.java b/a_b/C.java\n")
+          .doesNotContain("B.java", "A.java");
+        assertThat(Files.readString(diffs.resolve(DiffSink.patchPath(Path.of("a"), false))))
+          .startsWith("diff --git a/a/A.java b/a/A.java\n")
+          .doesNotContain("B.java", "C.java");
+    }
+
+    @Test
+    void skipUnchangedFiles(@TempDir Path root, @TempDir Path diffs) throws IOException {
+        try (DiffSink sink = new DiffSink(root, diffs, false)) {
+            sink.accept(Path.of("A.java"), BEFORE, BEFORE);
+        }
+
+        assertThat(diffs).isEmptyDirectory();
+    }
+
+    @Test
+    void gzipPatches(@TempDir Path root, @TempDir Path diffs) throws IOException {
+        try (DiffSink sink = new DiffSink(root, diffs, true)) {
+            sink.accept(Path.of("A.java"), BEFORE, AFTER);
+        }
+
+        Path patch = diffs.resolve(DiffSink.patchPath(DiffSink.ROOT_MODULE, true));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(patch))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).startsWith("diff --git a/A.java b/A.java\n");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MigrationCacheTest {
+
+    private static final String HASH = MigrationCache.hash("class A {}".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void missUnknownContent(@TempDir Path dir) throws IOException {
+        assertThat(new MigrationCache(dir, "v1").lookup(HASH)).isEmpty();
+    }
+
+    @Test
+    void hitRecordedResults(@TempDir Path dir) throws IOException {
+        MigrationCache cache = new MigrationCache(dir, "v1");
+        String other = MigrationCache.hash("class B {}".getBytes(StandardCharsets.UTF_8));
+
+        cache.recordUnchanged(HASH);
+        cache.recordChanged(other, "class C {}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.lookup(HASH)).hasValueSatisfying(entry -> assertThat(entry.unchanged()).isTrue());
+        assertThat(cache.lookup(other)).hasValueSatisfying(entry ->
+          assertThat(entry.after()).asString(StandardCharsets.UTF_8).isEqualTo("class C {}"));
+    }
+
+    @Test
+    void invalidateOnOtherFingerprint(@TempDir Path dir) throws IOException {
+        new MigrationCache(dir, "v1").recordUnchanged(HASH);
+
+        assertThat(new MigrationCache(dir, "v2").lookup(HASH)).isEmpty();
+    }
+
+    @Test
+    void fingerprintDependsOnRecipe() {
+        assertThat(MigrationCache.fingerprint(MigrationRunner.DEFAULT_RECIPE, List.of()))
+          .isEqualTo(MigrationCache.fingerprint(MigrationRunner.DEFAULT_RECIPE, List.of()))
+          .isNotEqualTo(MigrationCache.fingerprint("io.github.mboegers.openrewrite.TestNgToJUnitJupiterSinglePass", List.of()));
+    }
+
+    @Test
+    void hashDependsOnCrossFileFacts() {
+        byte[] content = "class C {}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(MigrationCache.hash(content)).isEqualTo(MigrationCache.hash(content));
+        assertThat(MigrationCache.hash(content, "Provider[name=boxes]"))
+          .isEqualTo(MigrationCache.hash(content, "Provider[name=boxes]"))
+          .isNotEqualTo(MigrationCache.hash(content))
+          .isNotEqualTo(MigrationCache.hash(content, "Provider[name=rows]"));
+    }
+
+    @Test
+    void fingerprintDependsOnClasspath(@TempDir Path dir) throws IOException {
+        Path testng = Files.write(dir.resolve("testng.jar"), new byte[]{1});
+        Path jupiter = Files.write(dir.resolve("junit-jupiter-api.jar"), new byte[]{1});
+        String fingerprint = MigrationCache.fingerprint(MigrationRunner.DEFAULT_RECIPE, List.of(testng));
+
+        assertThat(MigrationCache.fingerprint(MigrationRunner.DEFAULT_RECIPE, List.of(testng)))
+          .isEqualTo(fingerprint);
+        assertThat(MigrationCache.fingerprint(MigrationRunner.DEFAULT_RECIPE, List.of(testng, jupiter)))
+          .isNotEqualTo(fingerprint);
+
+        Files.write(testng, new byte[]{1, 2});
+        assertThat(MigrationCache.fingerprint(MigrationRunner.DEFAULT_RECIPE, List.of(testng)))
+          .isNotEqualTo(fingerprint);
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import io.github.mboegers.openrewrite.testngtojupiter.TestNgCorpus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Result;
+import org.openrewrite.config.Environment;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class MigrationRunnerTest {
+
+    private static final String DATA_PROVIDER_RECIPE = "io.github.mboegers.openrewrite.testngtojupiter.MigrateDataProvider";
+
+    private static final TestNgCorpus CORPUS = TestNgCorpus.builder()
+      .testClasses(20)
+      .testMethods(6)
+      .build();
+
+    @Test
+    void migratesLikeInMemoryRun(@TempDir Path root) throws IOException {
+        CORPUS.writeTo(root);
+
+        MigrationSummary summary = MigrationRunner.builder()
+          .root(root)
+          .threads(4)
+          .batchSize(3)
+          .queueCapacity(1)
+          .build()
+          .run();
+
+        List<Result> expected = migrateInMemory(CORPUS, MigrationRunner.DEFAULT_RECIPE);
+        assertThat(expected).isNotEmpty();
+        for (Result result : expected) {
+            assertThat(root.resolve(result.getAfter().getSourcePath())).hasContent(result.getAfter().printAll());
+        }
+        assertThat(summary.filesFound()).isEqualTo(21);
+        assertThat(summary.filesSkipped()).isZero();
+        assertThat(summary.filesParsed()).isEqualTo(21);
+        assertThat(summary.filesChanged()).isEqualTo(expected.size());
+        assertThat(summary.failures()).isZero();
+    }
+
+    @Test
+    void resolveDataProvidersAcrossBatches(@TempDir Path root) throws IOException {
+        TestNgCorpus corpus = CORPUS.toBuilder().testClasses(4).inClassProviders(0).dataDrivenTests(3).build();
+        corpus.writeTo(root);
+
+        // every file is parsed on its own, providers and consumers never share a batch
+        MigrationSummary summary = MigrationRunner.builder()
+          .root(root)
+          .recipe(DATA_PROVIDER_RECIPE)
+          .batchSize(1)
+          .build()
+          .run();
+
+        List<Result> expected = migrateInMemory(corpus, DATA_PROVIDER_RECIPE);
+        assertThat(expected).hasSize(5);
+        for (Result result : expected) {
+            assertThat(root.resolve(result.getAfter().getSourcePath())).hasContent(result.getAfter().printAll());
+        }
+        assertThat(summary.filesChanged()).isEqualTo(5);
+    }
+
+    @Test
+    void shardAcrossProcesses(@TempDir Path root, @TempDir Path patches) throws Exception {
+        TestNgCorpus corpus = CORPUS.toBuilder().testClasses(12).providerClasses(2).build();
+        corpus.writeTo(root);
+
+        int shards = 3;
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            processes.add(new ProcessBuilder(
+              Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+              "-cp", System.getProperty("java.class.path"),
+              MigrationRunner.class.getName(),
+              root.toString(),
+              "--recipe=" + DATA_PROVIDER_RECIPE,
+              "--shard=" + i + "/" + shards,
+              "--output=" + patches.resolve("shard" + i))
+              .inheritIO()
+              .start());
+        }
+        for (Process process : processes) {
+            assertThat(process.waitFor()).isZero();
+        }
+
+        ShardMerge.MergeResult merge = ShardMerge.merge(root,
+          IntStream.range(0, shards).mapToObj(i -> patches.resolve("shard" + i)).toList());
+
+        List<Result> expected = migrateInMemory(corpus, DATA_PROVIDER_RECIPE);
+        assertThat(merge.applied()).isTrue();
+        assertThat(merge.filesChanged()).isEqualTo(expected.size());
+        for (Result result : expected) {
+            assertThat(root.resolve(result.getAfter().getSourcePath())).hasContent(result.getAfter().printAll());
+        }
+    }
+
+    @Test
+    void parsedFilesHeldAtOnceIndependentOfTreeSize(@TempDir Path small, @TempDir Path large) throws IOException {
+        CORPUS.toBuilder().testClasses(20).testMethods(2).build().writeTo(small);
+        CORPUS.toBuilder().testClasses(200).testMethods(2).build().writeTo(large);
+        MigrationRunner runner = MigrationRunner.builder()
+          .threads(2)
+          .batchSize(4)
+          .queueCapacity(1)
+          .dryRun(true)
+          .build();
+
+        MigrationSummary smallRun = runner.toBuilder().root(small).build().run();
+        MigrationSummary largeRun = runner.toBuilder().root(large).build().run();
+
+        // peakFilesInMemory is a proxy for the heap, it counts parsed files and not bytes:
+        // two workers and the walking thread hold at most one batch each
+        assertThat(largeRun.filesChanged()).isEqualTo(200);
+        assertThat(smallRun.peakFilesInMemory()).isBetween(1L, 12L);
+        assertThat(largeRun.peakFilesInMemory()).isBetween(1L, 12L);
+    }
+
+    @Test
+    void skipFilesWithoutTestNg(@TempDir Path root) throws IOException {
+        // 5 test classes and 1 provider class among 100 files
+        CORPUS.toBuilder().testClasses(5).plainClasses(94).build().writeTo(root);
+
+        MigrationSummary summary = MigrationRunner.builder().root(root).dryRun(true).build().run();
+
+        assertThat(summary.filesFound()).isEqualTo(100);
+        assertThat(summary.filesSkipped()).isEqualTo(94);
+        assertThat(summary.filesParsed()).isEqualTo(6);
+        assertThat(summary.filesChanged()).isEqualTo(5);
+    }
+
+    @Test
+    void parseAllFilesWithoutPreFilter(@TempDir Path root) throws IOException {
+        CORPUS.toBuilder().testClasses(5).plainClasses(94).build().writeTo(root);
+
+        MigrationSummary summary = MigrationRunner.builder().root(root).dryRun(true).preFilter(null).build().run();
+
+        assertThat(summary.filesSkipped()).isZero();
+        assertThat(summary.filesParsed()).isEqualTo(100);
+        assertThat(summary.filesChanged()).isEqualTo(5);
+    }
+
+    @Test
+    void reuseCachedResults(@TempDir Path root, @TempDir Path cache) throws IOException {
+        List<TestNgCorpus.Source> sources = CORPUS.writeTo(root);
+        MigrationRunner runner = MigrationRunner.builder().root(root).cacheDirectory(cache).build();
+
+        MigrationSummary first = runner.run();
+        Map<Path, String> migrated = new HashMap<>();
+        for (TestNgCorpus.Source source : sources) {
+            migrated.put(source.path(), Files.readString(root.resolve(source.path())));
+        }
+
+        // the original sources again, e.g. on another branch
+        CORPUS.writeTo(root);
+        MigrationSummary second = runner.run();
+
+        assertThat(first.filesCached()).isZero();
+        assertThat(second.filesCached()).isEqualTo(21);
+        assertThat(second.filesParsed()).isZero();
+        assertThat(second.filesChanged()).isEqualTo(first.filesChanged());
+        for (TestNgCorpus.Source source : sources) {
+            assertThat(root.resolve(source.path())).hasContent(migrated.get(source.path()));
+        }
+    }
+
+    @Test
+    void cacheUnchangedFiles(@TempDir Path root, @TempDir Path cache) throws IOException {
+        CORPUS.toBuilder().plainClasses(5).build().writeTo(root);
+        MigrationRunner runner = MigrationRunner.builder().root(root).cacheDirectory(cache).preFilter(null).build();
+
+        runner.run();
+        MigrationSummary second = runner.run();
+
+        // migrated files are new content, only the untouched ones are known
+        assertThat(second.filesCached()).isEqualTo(6);
+        assertThat(second.filesParsed()).isEqualTo(20);
+    }
+
+    @Test
+    void resumeWithoutParsingFinishedFiles(@TempDir Path root, @TempDir Path work) throws IOException {
+        List<TestNgCorpus.Source> sources = CORPUS.writeTo(root);
+        MigrationRunner runner = MigrationRunner.builder()
+          .root(root)
+          .recipe(DATA_PROVIDER_RECIPE)
+          .journal(work.resolve("journal"))
+          .build();
+
+        MigrationSummary first = runner.run();
+        // edited after it was finished
+        Files.writeString(root.resolve(sources.get(0).path()), sources.get(0).content() + "// edited\n");
+        MigrationSummary second = runner.run();
+
+        assertThat(first.filesResumed()).isZero();
+        assertThat(second.filesResumed()).isEqualTo(first.filesParsed() - 1);
+        assertThat(second.filesParsed()).isEqualTo(1);
+        assertThat(second.failures()).isZero();
+    }
+
+    @Test
+    void resumeAfterKill(@TempDir Path root, @TempDir Path work) throws Exception {
+        TestNgCorpus corpus = CORPUS.toBuilder().testClasses(40).providerClasses(2).build();
+        corpus.writeTo(root);
+        List<Result> expected = migrateInMemory(corpus, DATA_PROVIDER_RECIPE);
+        Path journal = work.resolve("journal");
+
+        Process process = new ProcessBuilder(
+          Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+          "-cp", System.getProperty("java.class.path"),
+          MigrationRunner.class.getName(),
+          root.toString(),
+          "--recipe=" + DATA_PROVIDER_RECIPE,
+          "--threads=1",
+          "--batch-size=1",
+          "--journal=" + journal)
+          .inheritIO()
+          .start();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (process.isAlive() && finishedFiles(journal) < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        process.destroyForcibly().waitFor();
+
+        MigrationSummary resumed = MigrationRunner.builder()
+          .root(root)
+          .recipe(DATA_PROVIDER_RECIPE)
+          .journal(journal)
+          .build()
+          .run();
+
+        assertThat(resumed.filesResumed()).isPositive();
+        assertThat(resumed.filesResumed() + resumed.filesParsed()).isEqualTo(resumed.filesFound() - resumed.filesSkipped());
+        assertThat(resumed.failures()).isZero();
+        for (Result result : expected) {
+            assertThat(root.resolve(result.getAfter().getSourcePath())).hasContent(result.getAfter().printAll());
+        }
+    }
+
+    @Test
+    void dryRunKeepsFiles(@TempDir Path root) throws IOException {
+        List<TestNgCorpus.Source> sources = CORPUS.writeTo(root);
+
+        MigrationSummary summary = MigrationRunner.builder().root(root).dryRun(true).build().run();
+
+        assertThat(summary.filesChanged()).isPositive();
+        for (TestNgCorpus.Source source : sources) {
+            assertThat(Files.readString(root.resolve(source.path()))).isEqualTo(source.content());
+        }
+    }
+
+    @Test
+    void rejectJournalWithoutChangingTree(@TempDir Path root, @TempDir Path work) {
+        MigrationRunner journaled = MigrationRunner.builder().root(root).journal(work.resolve("journal")).build();
+
+        assertThatIllegalStateException().isThrownBy(() -> journaled.toBuilder().dryRun(true).build().run());
+        assertThatIllegalStateException().isThrownBy(() -> journaled.toBuilder().diff(work.resolve("diff")).build().run());
+        assertThat(work.resolve("journal")).doesNotExist();
+    }
+
+    @Test
+    void writeDiffWithoutChangingTree(@TempDir Path root, @TempDir Path diffs) throws IOException {
+        List<TestNgCorpus.Source> sources = CORPUS.writeTo(root);
+
+        MigrationSummary summary = MigrationRunner.builder().root(root).diff(diffs).build().run();
+
+        assertThat(summary.filesChanged()).isPositive();
+        for (TestNgCorpus.Source source : sources) {
+            assertThat(Files.readString(root.resolve(source.path()))).isEqualTo(source.content());
+        }
+        String diff = Files.readString(diffs.resolve(DiffSink.patchPath(DiffSink.ROOT_MODULE, false)));
+        assertThat(diff.split("\ndiff --git a/corpus/")).hasSize((int) summary.filesChanged());
+    }
+
+    @Test
+    void parseArguments() {
+        MigrationRunner runner = MigrationRunner.fromArguments("src", "--threads=3", "--batch-size=8", "--dry-run",
+          "--no-pre-filter", "--cache=build/cache", "--shard=1/4", "--output=build/shard1", "--journal=build/journal",
+          "--diff=build/diff", "--gzip");
+
+        assertThat(runner.getRoot()).isEqualTo(Path.of("src"));
+        assertThat(runner.getThreads()).isEqualTo(3);
+        assertThat(runner.getBatchSize()).isEqualTo(8);
+        assertThat(runner.isDryRun()).isTrue();
+        assertThat(runner.getPreFilter()).isNull();
+        assertThat(runner.getCacheDirectory()).isEqualTo(Path.of("build/cache"));
+        assertThat(runner.getShard()).isEqualTo(new Shard(1, 4));
+        assertThat(runner.getOutput()).isEqualTo(Path.of("build/shard1"));
+        assertThat(runner.getJournal()).isEqualTo(Path.of("build/journal"));
+        assertThat(runner.getDiff()).isEqualTo(Path.of("build/diff"));
+        assertThat(runner.isGzip()).isTrue();
+        assertThat(runner.getRecipe()).isEqualTo(MigrationRunner.DEFAULT_RECIPE);
+    }
+
+    @Test
+    void rejectMalformedArguments() {
+        assertThatIllegalArgumentException().isThrownBy(() -> MigrationRunner.fromArguments());
+        assertThatIllegalArgumentException().isThrownBy(() -> MigrationRunner.fromArguments("src", "--threads"));
+        assertThatIllegalArgumentException().isThrownBy(() -> MigrationRunner.fromArguments("src", "--fast"));
+    }
+
+    private static long finishedFiles(Path journal) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        try (Stream<String> lines = Files.lines(journal)) {
+            return lines.filter(line -> line.matches("[0-9a-f]{64}\t.+")).count();
+        }
+    }
+
+    private static List<Result> migrateInMemory(TestNgCorpus corpus, String recipe) {
+        return Environment.builder()
+          .scanRuntimeClasspath("io.github.mboegers.openrewrite")
+          .build()
+          .activateRecipes(recipe)
+          .run(new InMemoryLargeSourceSet(corpus.parse(new InMemoryExecutionContext())), new InMemoryExecutionContext())
+          .getChangeset()
+          .getAllResults();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PreFilterTest {
+
+    private final PreFilter preFilter = new PreFilter(PreFilter.TESTNG);
+
+    @Test
+    void matchSmallFile(@TempDir Path dir) throws IOException {
+        Path file = Files.writeString(dir.resolve("A.java"), "import org.testng.Assert;");
+
+        assertThat(preFilter.matches(file)).isTrue();
+    }
+
+    @Test
+    void matchMarkerAtEndOfMappedFile(@TempDir Path dir) throws IOException {
+        Path file = Files.writeString(dir.resolve("A.java"), " ".repeat(200_000) + "org.testng");
+
+        assertThat(preFilter.matches(file)).isTrue();
+    }
+
+    @Test
+    void skipPartialMarker(@TempDir Path dir) throws IOException {
+        Path small = Files.writeString(dir.resolve("A.java"), "import org.test.Assert; // org.testn");
+        Path large = Files.writeString(dir.resolve("B.java"), "org.testn".repeat(20_000));
+
+        assertThat(preFilter.matches(small)).isFalse();
+        assertThat(preFilter.matches(large)).isFalse();
+    }
+
+    @Test
+    void reuseBufferAcrossFiles(@TempDir Path dir) throws IOException {
+        Path match = Files.writeString(dir.resolve("A.java"), "x".repeat(1000) + "org.testng");
+        Path shorter = Files.writeString(dir.resolve("B.java"), "x".repeat(10));
+
+        assertThat(preFilter.matches(match)).isTrue();
+        assertThat(preFilter.matches(shorter)).isFalse();
+    }
+
+    @Test
+    void matchAnyMarker(@TempDir Path dir) throws IOException {
+        PreFilter providers = new PreFilter("DataProvider", "dataProvider");
+        Path provider = Files.writeString(dir.resolve("A.java"), "import org.testng.annotations.DataProvider;");
+        Path consumer = Files.writeString(dir.resolve("B.java"), "@Test(dataProvider = \"rows\")");
+        Path other = Files.writeString(dir.resolve("C.java"), "@Test(enabled = false)");
+
+        assertThat(providers.matches(provider)).isTrue();
+        assertThat(providers.matches(consumer)).isTrue();
+        assertThat(providers.matches(other)).isFalse();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardMergeTest {
+
+    @TempDir
+    Path root;
+
+    @TempDir
+    Path patches;
+
+    @BeforeEach
+    void writeTree() throws IOException {
+        Files.createDirectories(root.resolve("a"));
+        Files.writeString(root.resolve("a/A.java"), "class A {}");
+        Files.writeString(root.resolve("a/B.java"), "class B {}");
+    }
+
+    @Test
+    void applyDisjointPatches() throws IOException {
+        Path first = patch("first", "a/A.java", "class A {}", "class A2 {}");
+        Path second = patch("second", "a/B.java", "class B {}", "class B2 {}");
+
+        ShardMerge.MergeResult result = ShardMerge.merge(root, List.of(first, second));
+
+        assertThat(result.applied()).isTrue();
+        assertThat(result.filesChanged()).isEqualTo(2);
+        assertThat(root.resolve("a/A.java")).hasContent("class A2 {}");
+        assertThat(root.resolve("a/B.java")).hasContent("class B2 {}");
+    }
+
+    @Test
+    void rejectDifferentChangesOfOneFile() throws IOException {
+        Path first = patch("first", "a/A.java", "class A {}", "class A2 {}");
+        Path second = patch("second", "a/A.java", "class A {}", "class A3 {}");
+
+        ShardMerge.MergeResult result = ShardMerge.merge(root, List.of(first, second));
+
+        assertThat(result.applied()).isFalse();
+        assertThat(result.conflicts()).singleElement().asString().startsWith("a/A.java is changed differently");
+        assertThat(root.resolve("a/A.java")).hasContent("class A {}");
+    }
+
+    @Test
+    void rejectFilesChangedSinceMigration() throws IOException {
+        Path first = patch("first", "a/A.java", "class A {}", "class A2 {}");
+        Path second = patch("second", "a/B.java", "class B {}", "class B2 {}");
+        Files.writeString(root.resolve("a/A.java"), "class A { int edited; }");
+
+        ShardMerge.MergeResult result = ShardMerge.merge(root, List.of(first, second));
+
+        assertThat(result.conflicts()).containsExactly("a/A.java changed since it was migrated");
+        assertThat(root.resolve("a/B.java")).hasContent("class B {}");
+    }
+
+    private Path patch(String name, String sourcePath, String before, String after) throws IOException {
+        Path directory = patches.resolve(name);
+        try (MigrationPatch patch = new MigrationPatch(directory)) {
+            patch.accept(Path.of(sourcePath), before.getBytes(StandardCharsets.UTF_8), after.getBytes(StandardCharsets.UTF_8));
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ShardTest {
+
+    private static final List<Path> PATHS = IntStream.range(0, 200)
+      .mapToObj(i -> Path.of("corpus", "p" + (i % 7), "Test" + i + ".java"))
+      .toList();
+
+    @Test
+    void everyFileBelongsToExactlyOneShard() {
+        List<Shard> shards = IntStream.range(0, 3).mapToObj(i -> new Shard(i, 3)).toList();
+
+        for (Path path : PATHS) {
+            assertThat(shards).filteredOn(shard -> shard.owns(path)).hasSize(1);
+        }
+        assertThat(shards).allSatisfy(shard -> assertThat(PATHS).anyMatch(shard::owns));
+    }
+
+    @Test
+    void assignmentOnlyDependsOnRelativePath() {
+        Shard shard = new Shard(1, 4);
+
+        assertThat(PATHS).allSatisfy(path ->
+          assertThat(shard.owns(Path.of(path.toString()))).isEqualTo(new Shard(1, 4).owns(path)));
+        assertThat(Shard.normalize(Path.of("a", "b", "C.java"))).isEqualTo("a/b/C.java");
+    }
+
+    @Test
+    void parseShard() {
+        assertThat(Shard.parse("2/5")).isEqualTo(new Shard(2, 5));
+        assertThat(Shard.parse("2/5")).hasToString("2/5");
+        assertThatIllegalArgumentException().isThrownBy(() -> Shard.parse("5/5"));
+        assertThatIllegalArgumentException().isThrownBy(() -> Shard.parse("a/5"));
+        assertThatIllegalArgumentException().isThrownBy(() -> Shard.parse("0/0"));
+    }
+}
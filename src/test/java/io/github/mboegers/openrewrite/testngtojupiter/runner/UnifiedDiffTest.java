@@ -0,0 +1,187 @@
+/*
+ * Copyright 2015-2024 the original author or authors.
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v2.0 which
+ * accompanies this distribution and is available at
+ *
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package io.github.mboegers.openrewrite.testngtojupiter.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UnifiedDiffTest {
+
+    @Test
+    void noDiffForEqualContent() {
+        assertThat(diff("class A {}\n", "class A {}\n")).isEmpty();
+    }
+
+    @Test
+    void changedLineWithContext() {
+        String before = """
+          import org.testng.annotations.Test;
+
+          class A {
+              @Test
+              void a() {
+              }
+          }
+          """;
+
+        assertThat(diff(before, before.replace("org.testng.annotations", "org.junit.jupiter.api"))).isEqualTo("""
+          diff --git a/A.java b/A.java
+          --- a/A.java
+          +++ b/A.java
+          @@ -1,4 +1,4 @@
+          -import org.testng.annotations.Test;
+          +import org.junit.jupiter.api.Test;
+          \s
+           class A {
+               @Test
+          """);
+    }
+
+    @Test
+    void distantChangesInSeparateHunks() {
+        String before = IntStream.rangeClosed(1, 20).mapToObj(i -> i + "\n").collect(Collectors.joining());
+        String after = before.replace("\n2\n", "\ntwo\n").replace("\n19\n", "\nnineteen\n");
+
+        assertThat(diff(before, after)).isEqualTo("""
+          diff --git a/A.java b/A.java
+          --- a/A.java
+          +++ b/A.java
+          @@ -1,5 +1,5 @@
+           1
+          -2
+          +two
+           3
+           4
+           5
+          @@ -16,5 +16,5 @@
+           16
+           17
+           18
+          -19
+          +nineteen
+           20
+          """);
+    }
+
+    @Test
+    void markMissingNewlineAtEndOfFile() {
+        assertThat(diff("a\nb\n", "a\nc")).isEqualTo("""
+          diff --git a/A.java b/A.java
+          --- a/A.java
+          +++ b/A.java
+          @@ -1,2 +1,2 @@
+           a
+          -b
+          +c
+          \\ No newline at end of file
+          """);
+    }
+
+    @Test
+    void keepBytesOfOtherEncodings() {
+        byte[] before = "// Gr\u00fc\u00dfe\nclass A {}\n".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] after = "// Gr\u00fc\u00dfe\nclass B {}\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertThat(UnifiedDiff.diff("A.java", before, after))
+          .asString(StandardCharsets.ISO_8859_1)
+          .contains(" // Gr\u00fc\u00dfe\n-class A {}\n+class B {}\n");
+    }
+
+    @Test
+    void replaceEverythingBetweenCommonLinesBeyondMaxEdits() {
+        String before = "head\n" + IntStream.range(0, 1500).mapToObj(i -> "a" + i + "\n").collect(Collectors.joining()) + "tail\n";
+        String after = "head\n" + IntStream.range(0, 1500).mapToObj(i -> "b" + i + "\n").collect(Collectors.joining()) + "tail\n";
+
+        String diff = diff(before, after);
+
+        assertThat(diff).startsWith("""
+          diff --git a/A.java b/A.java
+          --- a/A.java
+          +++ b/A.java
+          @@ -1,1502 +1,1502 @@
+           head
+          -a0
+          """);
+        assertThat(diff.lines().filter(line -> line.startsWith("@@"))).hasSize(1);
+        assertThat(diff.lines().filter(line -> line.startsWith("-a"))).hasSize(1500);
+        assertThat(diff.lines().filter(line -> line.startsWith("+b"))).hasSize(1500);
+        assertThat(diff).contains("-a1499\n+b0\n").endsWith("+b1499\n tail\n");
+    }
+
+    @Test
+    void applyWithGit(@TempDir Path dir) throws IOException, InterruptedException {
+        assumeTrue(gitAvailable(), "git is not installed");
+        Random random = new Random(42);
+        List<String> lines = IntStream.range(0, 200).mapToObj(i -> "line " + i).toList();
+
+        for (int run = 0; run < 20; run++) {
+            String before = edit(lines, random);
+            String after = edit(lines, random);
+            if (random.nextBoolean()) {
+                after = after.substring(0, after.length() - 1);
+            }
+            Path file = dir.resolve("A.java");
+            Files.writeString(file, before);
+            Files.write(dir.resolve("A.diff"), UnifiedDiff.diff("A.java", before.getBytes(StandardCharsets.UTF_8),
+              after.getBytes(StandardCharsets.UTF_8)));
+
+            Process git = new ProcessBuilder("git", "apply", "A.diff")
+              .directory(dir.toFile())
+              .redirectErrorStream(true)
+              .start();
+            String output = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+            assertThat(git.waitFor()).as(output).isZero();
+            assertThat(Files.readString(file)).isEqualTo(after);
+        }
+    }
+
+    private static String edit(List<String> lines, Random random) {
+        List<String> edited = new ArrayList<>(lines);
+        for (int i = 0; i < 30; i++) {
+            int at = random.nextInt(edited.size());
+            switch (random.nextInt(3)) {
+                case 0 -> edited.remove(at);
+                case 1 -> edited.add(at, "inserted " + i);
+                default -> edited.set(at, "changed " + i);
+            }
+        }
+        return edited.stream().map(line -> line + "\n").collect(Collectors.joining());
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String diff(String before, String after) {
+        return new String(UnifiedDiff.diff("A.java", before.getBytes(StandardCharsets.UTF_8),
+          after.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+}